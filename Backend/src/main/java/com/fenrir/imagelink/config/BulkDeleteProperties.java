@@ -0,0 +1,12 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.bulk-delete")
+public class BulkDeleteProperties {
+    private int chunkSize = 200;
+}
@@ -0,0 +1,57 @@
+package com.fenrir.imagelink.config;
+
+import com.fenrir.imagelink.controller.cache.SerializedResponse;
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableConfigurationProperties(CachingProperties.class)
+public class CacheConfiguration {
+
+    @Bean
+    public CacheManager cacheManager(CachingProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(CacheNames.IMAGES,
+                entityCache(properties, value -> ((ImageResponseDto) value).getExpiresAt()));
+        cacheManager.registerCustomCache(CacheNames.COLLECTIONS,
+                entityCache(properties, value -> ((CollectionResponseDto) value).getExpiresAt()));
+        cacheManager.registerCustomCache(CacheNames.IMAGE_RESPONSES, responseCache(properties));
+        cacheManager.registerCustomCache(CacheNames.COLLECTION_IMAGES_RESPONSES, responseCache(properties));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private Cache<Object, Object> entityCache(CachingProperties properties, Function<Object, LocalDateTime> expiresAt) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new CollectionExpiry(properties.getTimeToLive(), expiresAt))
+                .recordStats()
+                .build();
+    }
+
+    private Cache<Object, Object> responseCache(CachingProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumWeight(properties.getResponseMaximumSize().toBytes())
+                .weigher((key, value) -> ((SerializedResponse) value).getBody().length)
+                .expireAfter(new CollectionExpiry(
+                        properties.getTimeToLive(), value -> ((SerializedResponse) value).getExpiresAt()))
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.fenrir.imagelink.config;
+
+public final class CacheNames {
+    public static final String IMAGES = "images";
+    public static final String COLLECTIONS = "collections";
+    public static final String IMAGE_RESPONSES = "imageResponses";
+    public static final String COLLECTION_IMAGES_RESPONSES = "collectionImagesResponses";
+
+    private CacheNames() { }
+}
@@ -0,0 +1,17 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.cache")
+public class CachingProperties {
+    private long maximumSize = 10_000;
+    private Duration timeToLive = Duration.ofMinutes(10);
+    private DataSize responseMaximumSize = DataSize.ofMegabytes(64);
+}
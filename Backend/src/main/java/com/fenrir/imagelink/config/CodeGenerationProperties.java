@@ -0,0 +1,23 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.code-generation")
+public class CodeGenerationProperties {
+    private Strategy strategy = Strategy.PRE_CHECK;
+    private Randomness randomness = Randomness.FAST;
+
+    public enum Strategy {
+        PRE_CHECK,
+        OPTIMISTIC
+    }
+
+    public enum Randomness {
+        FAST,
+        SECURE
+    }
+}
@@ -0,0 +1,21 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.code-index")
+public class CodeIndexProperties {
+    private boolean enabled = false;
+    private Type type = Type.EXACT;
+    private long expectedSize = 1_000_000;
+    private double falsePositiveRate = 0.01;
+    private int fetchSize = 10_000;
+
+    public enum Type {
+        EXACT,
+        BLOOM
+    }
+}
@@ -0,0 +1,14 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.code-pool")
+public class CodePoolProperties {
+    private boolean enabled = true;
+    private int capacity = 1024;
+    private int batchSize = 256;
+}
@@ -0,0 +1,34 @@
+package com.fenrir.imagelink.config;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.AllArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+@AllArgsConstructor
+public class CollectionExpiry implements Expiry<Object, Object> {
+    private final Duration timeToLive;
+    private final Function<Object, LocalDateTime> expiresAtFunction;
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        LocalDateTime expiresAt = expiresAtFunction.apply(value);
+        if (expiresAt == null) {
+            return timeToLive.toNanos();
+        }
+        Duration remaining = Duration.between(LocalDateTime.now(), expiresAt);
+        return Math.max(0, Math.min(timeToLive.toNanos(), remaining.toNanos()));
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,69 @@
+package com.fenrir.imagelink.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+@Configuration
+@EnableConfigurationProperties(ExecutionProperties.class)
+public class ExecutionConfiguration {
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "imagelink.execution", name = "mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    @ConditionalOnProperty(prefix = "imagelink.execution", name = "mode", havingValue = "virtual")
+    public AsyncTaskExecutor virtualThreadTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "imagelink.execution.db-admission", name = "enabled", matchIfMissing = true)
+    public static AdmissionLimitingPostProcessor admissionLimitingDataSourcePostProcessor(
+            ObjectProvider<ExecutionProperties> properties) {
+        return new AdmissionLimitingPostProcessor(properties);
+    }
+
+    static final class AdmissionLimitingPostProcessor implements BeanPostProcessor, Ordered {
+        private final ObjectProvider<ExecutionProperties> properties;
+
+        AdmissionLimitingPostProcessor(ObjectProvider<ExecutionProperties> properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource dataSource)) {
+                return bean;
+            }
+            ExecutionProperties.DbAdmission admission = properties.getObject().getDbAdmission();
+            int maxConcurrent = admission.getMaxConcurrent() > 0
+                    ? admission.getMaxConcurrent()
+                    : dataSource.getMaximumPoolSize() > 0 ? dataSource.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+            return new AdmissionLimitingDataSource(dataSource, maxConcurrent, admission.getAcquireTimeout());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.execution")
+public class ExecutionProperties {
+    private Mode mode = Mode.PLATFORM;
+    private final DbAdmission dbAdmission = new DbAdmission();
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Getter
+    @Setter
+    public static class DbAdmission {
+        private boolean enabled = true;
+        private int maxConcurrent = 0;
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+    }
+}
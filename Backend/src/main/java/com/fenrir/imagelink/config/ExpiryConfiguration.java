@@ -0,0 +1,10 @@
+package com.fenrir.imagelink.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({ ExpiryProperties.class, BulkDeleteProperties.class })
+public class ExpiryConfiguration { }
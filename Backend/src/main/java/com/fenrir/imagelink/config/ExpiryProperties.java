@@ -0,0 +1,14 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.expiry")
+public class ExpiryProperties {
+    private boolean enabled = true;
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 20;
+}
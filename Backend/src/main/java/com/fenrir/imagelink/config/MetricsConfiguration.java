@@ -0,0 +1,76 @@
+package com.fenrir.imagelink.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder dbAdmissionMetrics(DataSource dataSource) {
+        return registry -> {
+            AdmissionLimitingDataSource admission = unwrap(dataSource, AdmissionLimitingDataSource.class);
+            if (admission == null) {
+                return;
+            }
+            Gauge.builder("imagelink.db.admission.available", admission, AdmissionLimitingDataSource::getAvailablePermits)
+                    .description("Connection permits currently free")
+                    .register(registry);
+            Gauge.builder("imagelink.db.admission.queued", admission, AdmissionLimitingDataSource::getQueueLength)
+                    .description("Threads waiting for a connection permit")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(DataSource dataSource) {
+        return registry -> {
+            ReplicaRoutingDataSource routing = unwrap(dataSource, ReplicaRoutingDataSource.class);
+            if (routing == null) {
+                return;
+            }
+            FunctionCounter.builder("imagelink.db.routing.reads", routing, ReplicaRoutingDataSource::replicaReads)
+                    .tag("route", "replica")
+                    .description("Read-only transactions served by a replica")
+                    .register(registry);
+            FunctionCounter.builder("imagelink.db.routing.reads", routing, ReplicaRoutingDataSource::pinnedReads)
+                    .tag("route", "pinned")
+                    .description("Read-only transactions kept on the primary inside a read-your-writes window")
+                    .register(registry);
+            FunctionCounter.builder("imagelink.db.routing.reads", routing, ReplicaRoutingDataSource::fallbackReads)
+                    .tag("route", "fallback")
+                    .description("Read-only transactions sent to the primary because no replica was healthy")
+                    .register(registry);
+            for (ReplicaRoutingDataSource.Replica replica : routing.getReplicas()) {
+                Gauge.builder("imagelink.db.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                        .tag("replica", replica.getName())
+                        .register(registry);
+                Gauge.builder("imagelink.db.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                        .tag("replica", replica.getName())
+                        .baseUnit("seconds")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.fenrir.imagelink.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(OriginProperties.class)
+public class OriginConfiguration { }
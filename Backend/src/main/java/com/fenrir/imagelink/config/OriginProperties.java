@@ -0,0 +1,16 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.origin")
+public class OriginProperties {
+    private List<String> allowedHosts = new ArrayList<>();
+    private int maxRedirects = 5;
+}
@@ -0,0 +1,23 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.proxy")
+public class ProxyProperties {
+    private Path cacheDirectory = Path.of(System.getProperty("java.io.tmpdir"), "imagelink-proxy");
+    private DataSize maxCacheSize = DataSize.ofGigabytes(1);
+    private DataSize maxObjectSize = DataSize.ofMegabytes(32);
+    private int maxSources = 100_000;
+    private Duration sourceTimeToLive = Duration.ofHours(1);
+    private Duration evictedFileRetention = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration fetchTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,108 @@
+package com.fenrir.imagelink.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfiguration {
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "imagelink.replicas", name = "enabled", havingValue = "true")
+    public static BeanPostProcessor replicaRoutingDataSourcePostProcessor(
+            ObjectProvider<ReplicaProperties> replicaProperties,
+            ObjectProvider<DataSourceProperties> dataSourceProperties,
+            ObjectProvider<ExecutionProperties> executionProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource primary) || !DATA_SOURCE_BEAN_NAME.equals(beanName)) {
+                    return bean;
+                }
+                return routingDataSource(primary, replicaProperties.getObject(), dataSourceProperties.getObject(),
+                        executionProperties.getIfAvailable());
+            }
+        };
+    }
+
+    private static DataSource routingDataSource(DataSource primary, ReplicaProperties properties,
+                                                DataSourceProperties dataSourceProperties,
+                                                ExecutionProperties executionProperties) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : properties.getUrls()) {
+            HikariDataSource pool = replicaPool(url, pools.size() + 1, properties, dataSourceProperties);
+            pools.add(pool);
+            replicas.put(replicaName(url), admissionLimited(pool, executionProperties));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primary, replicas, properties.getMaxLag(), properties.getHealthCheckInterval());
+        routing.start();
+        return new RoutingDataSource(routing, pools);
+    }
+
+    private static HikariDataSource replicaPool(String url, int number, ReplicaProperties properties,
+                                                DataSourceProperties dataSourceProperties) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica-" + number);
+        pool.setJdbcUrl(url);
+        if (dataSourceProperties.getDriverClassName() != null) {
+            pool.setDriverClassName(dataSourceProperties.getDriverClassName());
+        }
+        pool.setUsername(properties.getUsername() != null
+                ? properties.getUsername()
+                : dataSourceProperties.determineUsername());
+        pool.setPassword(properties.getPassword() != null
+                ? properties.getPassword()
+                : dataSourceProperties.determinePassword());
+        pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+        pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        pool.setInitializationFailTimeout(-1);
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    private static DataSource admissionLimited(HikariDataSource pool, ExecutionProperties executionProperties) {
+        if (executionProperties == null || !executionProperties.getDbAdmission().isEnabled()) {
+            return pool;
+        }
+        return new AdmissionLimitingDataSource(pool, pool.getMaximumPoolSize(),
+                executionProperties.getDbAdmission().getAcquireTimeout());
+    }
+
+    private static String replicaName(String url) {
+        return url.replaceFirst("^jdbc:[^:]+://", "").replaceFirst("\\?.*$", "");
+    }
+
+    static final class RoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+        private final ReplicaRoutingDataSource routing;
+        private final List<HikariDataSource> pools;
+
+        RoutingDataSource(ReplicaRoutingDataSource routing, List<HikariDataSource> pools) {
+            super(routing);
+            this.routing = routing;
+            this.pools = pools;
+        }
+
+        @Override
+        public void close() {
+            routing.close();
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
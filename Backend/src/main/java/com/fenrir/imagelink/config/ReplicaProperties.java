@@ -0,0 +1,25 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.replicas")
+public class ReplicaProperties {
+    private boolean enabled = false;
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private Duration maxLag = Duration.ofSeconds(10);
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    private long readYourWritesMaximumSize = 100_000;
+}
@@ -0,0 +1,27 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.thumbnail")
+public class ThumbnailProperties {
+    private Path cacheDirectory = Path.of(System.getProperty("java.io.tmpdir"), "imagelink-thumbnails");
+    private List<Integer> sizes = List.of(64, 256, 512);
+    private int defaultSize = 256;
+    private int workers = 2;
+    private int queueCapacity = 64;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration fetchTimeout = Duration.ofSeconds(10);
+    private Duration generationTimeout = Duration.ofSeconds(30);
+    private Duration sourceTimeToLive = Duration.ofHours(1);
+    private DataSize maxSourceSize = DataSize.ofMegabytes(16);
+    private long maxSourcePixels = 25_000_000;
+}
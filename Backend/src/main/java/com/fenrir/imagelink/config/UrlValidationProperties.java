@@ -0,0 +1,21 @@
+package com.fenrir.imagelink.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "imagelink.url-validation")
+public class UrlValidationProperties {
+    private boolean enabled = true;
+    private int queueCapacity = 10_000;
+    private int maxConcurrency = 16;
+    private Duration perHostInterval = Duration.ofMillis(200);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration requestTimeout = Duration.ofSeconds(5);
+    private DataSize metadataBytes = DataSize.ofKilobytes(64);
+}
@@ -1,13 +1,30 @@
 package com.fenrir.imagelink.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fenrir.imagelink.config.CacheNames;
+import com.fenrir.imagelink.controller.cache.ETags;
+import com.fenrir.imagelink.controller.cache.SerializedResponseCache;
+import com.fenrir.imagelink.dto.CollectionDeleteResultDto;
 import com.fenrir.imagelink.dto.CollectionRequestDto;
 import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageBatchResultDto;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.service.CollectionBulkDeleteService;
 import com.fenrir.imagelink.service.CollectionService;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,21 +32,36 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 
 @AllArgsConstructor
+@Validated
 @RestController
 @RequestMapping(
         path = "/api/v1/collections",
         produces = MediaType.APPLICATION_JSON_VALUE
 )
 public class CollectionController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final CollectionService collectionService;
+    private final CollectionBulkDeleteService collectionBulkDeleteService;
+    private final SerializedResponseCache serializedResponseCache;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{code}")
     public ResponseEntity<CollectionResponseDto> getCollectionByCode(@PathVariable("code") String code) {
@@ -37,8 +69,73 @@ public class CollectionController {
     }
 
     @GetMapping("/{code}/images")
-    public ResponseEntity<List<ImageResponseDto>> getAllImagesByCollectionCode(@PathVariable("code") String code) {
-        return ResponseEntity.ok(collectionService.getAllImagesByCollectionCode(code));
+    @ApiResponse(
+            responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ImageResponseDto.class)))
+    )
+    public ResponseEntity<byte[]> getAllImagesByCollectionCode(@PathVariable("code") String code) {
+        return serializedResponseCache.getResponse(
+                CacheNames.COLLECTION_IMAGES_RESPONSES,
+                code,
+                () -> collectionService.getAllImagesByCollectionCode(code),
+                images -> ETags.fromUpdatedAt(images, ImageResponseDto::getCode, ImageResponseDto::getUpdatedAt),
+                images -> images.isEmpty() ? null : images.get(0).getExpiresAt()
+        );
+    }
+
+    @GetMapping(path = "/{code}/images", params = "limit")
+    public ResponseEntity<List<ImageResponseDto>> getImagesPageByCollectionCode(
+            @PathVariable("code") String code,
+            @RequestParam("limit") @Min(1) @Max(1000) int limit,
+            @RequestParam(name = "after", required = false) String after) {
+
+        List<ImageResponseDto> images = collectionService.getImagesPageByCollectionCode(code, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (images.size() == limit) {
+            URI next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", images.get(images.size() - 1).getCode())
+                    .build()
+                    .toUri();
+            response.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", next));
+        }
+
+        return response.body(images);
+    }
+
+    @GetMapping(path = "/{code}/images", params = { "after", "!limit" })
+    public ResponseEntity<List<ImageResponseDto>> getImagesPageByCollectionCodeAfter(
+            @PathVariable("code") String code,
+            @RequestParam("after") String after) {
+        return getImagesPageByCollectionCode(code, DEFAULT_PAGE_SIZE, after);
+    }
+
+    @GetMapping(path = "/{code}/images", params = { "stream=true", "!limit", "!after" })
+    @ApiResponse(
+            responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = ImageResponseDto.class)))
+    )
+    public ResponseEntity<StreamingResponseBody> streamAllImagesByCollectionCode(@PathVariable("code") String code) {
+        ObjectWriter writer = objectMapper.writerFor(ImageResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                collectionService.streamAllImagesByCollectionCode(code, image -> {
+                    try {
+                        writer.writeValue(generator, image);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @PostMapping
@@ -66,6 +163,22 @@ public class CollectionController {
         return ResponseEntity.created(location).body(imageResponseDto);
     }
 
+    @PostMapping("/{collectionCode}/images:batch")
+    public ResponseEntity<List<ImageBatchResultDto>> saveImages(
+            @PathVariable("collectionCode") String collectionCode,
+            @RequestBody @NotEmpty @Size(max = 500) List<ImageRequestDto> imageRequestDtos) {
+
+        List<ImageBatchResultDto> results = collectionService.saveImages(collectionCode, imageRequestDtos);
+        long created = results.stream()
+                .filter(result -> result.getStatus() == HttpStatus.CREATED.value())
+                .count();
+
+        HttpStatus status = created == results.size()
+                ? HttpStatus.CREATED
+                : created == 0 ? HttpStatus.CONFLICT : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(results);
+    }
+
     @PutMapping("/{code}")
     public ResponseEntity<CollectionResponseDto> updateCollection(
             @PathVariable("code") String code,
@@ -79,4 +192,11 @@ public class CollectionController {
         collectionService.deleteCollection(code);
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping
+    public ResponseEntity<CollectionDeleteResultDto> deleteCollections(
+            @RequestBody @NotEmpty @Size(max = 10000) List<String> codes) {
+
+        return ResponseEntity.ok(collectionBulkDeleteService.deleteCollections(codes));
+    }
 }
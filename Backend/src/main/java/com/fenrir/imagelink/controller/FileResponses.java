@@ -0,0 +1,50 @@
+package com.fenrir.imagelink.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+final class FileResponses {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long MAX_MAPPING_SIZE = 64L * 1024 * 1024;
+
+    private FileResponses() { }
+
+    static ResponseEntity<StreamingResponseBody> send(
+            ResponseEntity.BodyBuilder response,
+            HttpServletRequest request,
+            Path path,
+            long start,
+            long length) {
+
+        response.contentLength(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return response.build();
+        }
+
+        return response.body(outputStream -> {
+            try (FileChannel file = FileChannel.open(path)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                for (long position = start; position < start + length; position += MAX_MAPPING_SIZE) {
+                    MappedByteBuffer mapping = file.map(
+                            FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPING_SIZE, start + length - position));
+                    while (mapping.hasRemaining()) {
+                        target.write(mapping);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -1,9 +1,19 @@
 package com.fenrir.imagelink.controller;
 
+import com.fenrir.imagelink.config.CacheNames;
+import com.fenrir.imagelink.controller.cache.ETags;
+import com.fenrir.imagelink.controller.cache.SerializedResponseCache;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.service.CachedFile;
 import com.fenrir.imagelink.service.ImageService;
+import com.fenrir.imagelink.service.ThumbnailService;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,9 +22,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.time.Duration;
 
 @AllArgsConstructor
 @RestController
@@ -24,10 +39,44 @@ import javax.validation.Valid;
 )
 public class ImageController {
     private final ImageService imageService;
+    private final SerializedResponseCache serializedResponseCache;
+    private final ThumbnailService thumbnailService;
 
     @GetMapping("/{code}")
-    public ResponseEntity<ImageResponseDto> getImageByCode(@PathVariable("code") String code) {
-        return ResponseEntity.ok(imageService.getImage(code));
+    @ApiResponse(
+            responseCode = "200",
+            content = @Content(schema = @Schema(implementation = ImageResponseDto.class))
+    )
+    public ResponseEntity<byte[]> getImageByCode(@PathVariable("code") String code) {
+        return serializedResponseCache.getResponse(
+                CacheNames.IMAGE_RESPONSES,
+                code,
+                () -> imageService.getImage(code),
+                image -> ETags.fromUpdatedAt(image.getCode(), image.getUpdatedAt()),
+                ImageResponseDto::getExpiresAt
+        );
+    }
+
+    @GetMapping(
+            path = "/{code}/thumbnail",
+            produces = { MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.APPLICATION_JSON_VALUE }
+    )
+    public ResponseEntity<StreamingResponseBody> getThumbnail(
+            @PathVariable("code") String code,
+            @RequestParam(name = "size", required = false) Integer size,
+            HttpServletRequest request) {
+
+        CachedFile thumbnail = thumbnailService.getThumbnail(code, size != null ? size : thumbnailService.defaultSize());
+        String eTag = thumbnail.getPath().getFileName().toString();
+        if (new ServletWebRequest(request).checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                .contentType(thumbnail.getMediaType());
+        return FileResponses.send(response, request, thumbnail.getPath(), 0, thumbnail.getLength());
     }
 
     @PutMapping("/{code}")
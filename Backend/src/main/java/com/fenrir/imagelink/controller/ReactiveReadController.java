@@ -0,0 +1,38 @@
+package com.fenrir.imagelink.controller;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.service.ReactiveReadService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping(
+        path = "/api/v1/reactive",
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class ReactiveReadController {
+    private final ReactiveReadService reactiveReadService;
+
+    @GetMapping("/images/{code}")
+    public Mono<ImageResponseDto> getImageByCode(@PathVariable("code") String code) {
+        return reactiveReadService.getImage(code);
+    }
+
+    @GetMapping("/collections/{code}")
+    public Mono<CollectionResponseDto> getCollectionByCode(@PathVariable("code") String code) {
+        return reactiveReadService.getCollection(code);
+    }
+
+    @GetMapping("/collections/{code}/images")
+    public Flux<ImageResponseDto> getAllImagesByCollectionCode(@PathVariable("code") String code) {
+        return reactiveReadService.getAllImagesByCollectionCode(code);
+    }
+}
@@ -0,0 +1,92 @@
+package com.fenrir.imagelink.controller;
+
+import com.fenrir.imagelink.service.CachedFile;
+import com.fenrir.imagelink.service.ImageProxyService;
+import com.fenrir.imagelink.service.RedirectService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+public class RedirectController {
+    private static final String CONTENT_SECURITY_POLICY = "default-src 'none'; style-src 'unsafe-inline'; sandbox";
+
+    private final RedirectService redirectService;
+    private final ImageProxyService imageProxyService;
+
+    @GetMapping("/i/{code}")
+    public ResponseEntity<Void> redirect(@PathVariable("code") String code) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header(HttpHeaders.LOCATION, redirectService.resolve(code))
+                .build();
+    }
+
+    @GetMapping("/i/{code}/raw")
+    public ResponseEntity<StreamingResponseBody> raw(
+            @PathVariable("code") String code,
+            @RequestHeader(name = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(name = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletRequest request) {
+
+        CachedFile image = imageProxyService.getImage(code);
+        String eTag = "\"" + image.getContentHash() + "\"";
+        if (new ServletWebRequest(request).checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        long length = image.getLength();
+        if (range != null && (ifRange == null || ifRange.equals(eTag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange requested = ranges.get(0);
+                long start;
+                long end;
+                try {
+                    start = requested.getRangeStart(length);
+                    end = requested.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                    end = length - 1;
+                }
+                if (start >= length || end < start) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                            .build();
+                }
+                ResponseEntity.BodyBuilder response = headers(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT), image, eTag)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                return FileResponses.send(response, request, image.getPath(), start, end - start + 1);
+            }
+        }
+
+        return FileResponses.send(headers(ResponseEntity.ok(), image, eTag), request, image.getPath(), 0, length);
+    }
+
+    private static ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder response, CachedFile image, String eTag) {
+        return response.eTag(eTag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                .contentType(image.getMediaType())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header("X-Content-Type-Options", "nosniff")
+                .header("Content-Security-Policy", CONTENT_SECURITY_POLICY);
+    }
+}
@@ -4,11 +4,15 @@ import com.fenrir.imagelink.exception.CodeGenerationException;
 import com.fenrir.imagelink.exception.message.ConstraintViolationErrorMessage;
 import com.fenrir.imagelink.exception.message.ConstraintViolationInfo;
 import com.fenrir.imagelink.exception.message.ErrorMessage;
+import com.fenrir.imagelink.exception.OriginException;
 import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.exception.ThumbnailException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,6 +21,7 @@ import org.springframework.web.context.request.WebRequest;
 import javax.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
@@ -95,6 +100,39 @@ public class RestResponseEntityExceptionHandler {
         return new ResponseEntity<>(message, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler({ CannotCreateTransactionException.class, DataAccessResourceFailureException.class })
+    public ResponseEntity<ErrorMessage> handleDatabaseUnavailableException(Exception ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                LocalDateTime.now(),
+                "Database is busy, try again later",
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler({ ThumbnailException.class, OriginException.class })
+    public ResponseEntity<ErrorMessage> handleUpstreamException(RuntimeException ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.BAD_GATEWAY.value(),
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(message, HttpStatus.BAD_GATEWAY);
+    }
+
+    @ExceptionHandler({ RejectedExecutionException.class })
+    public ResponseEntity<ErrorMessage> handleRejectedExecutionException(RejectedExecutionException ex, WebRequest request) {
+        ErrorMessage message = new ErrorMessage(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                LocalDateTime.now(),
+                "Server is busy, try again later",
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler({ Exception.class })
     public ResponseEntity<ErrorMessage> handleUnknownException(Exception ex, WebRequest request) {
         ex.printStackTrace();
@@ -0,0 +1,37 @@
+package com.fenrir.imagelink.controller.cache;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+public final class ETags {
+
+    private ETags() { }
+
+    public static String fromUpdatedAt(String code, LocalDateTime updatedAt) {
+        return digest(new StringBuilder().append(code).append('@').append(updatedAt));
+    }
+
+    public static <T> String fromUpdatedAt(
+            List<T> items,
+            Function<T, String> codeExtractor,
+            Function<T, LocalDateTime> updatedAtExtractor) {
+
+        StringBuilder builder = new StringBuilder(items.size() * 40);
+        for (T item : items) {
+            builder.append(codeExtractor.apply(item))
+                    .append('@')
+                    .append(updatedAtExtractor.apply(item))
+                    .append(';');
+        }
+        return digest(builder);
+    }
+
+    private static String digest(CharSequence value) {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        return '"' + DigestUtils.md5DigestAsHex(bytes) + '"';
+    }
+}
@@ -0,0 +1,14 @@
+package com.fenrir.imagelink.controller.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class SerializedResponse {
+    private final String eTag;
+    private final byte[] body;
+    private final LocalDateTime expiresAt;
+}
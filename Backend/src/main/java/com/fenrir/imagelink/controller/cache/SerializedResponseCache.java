@@ -0,0 +1,75 @@
+package com.fenrir.imagelink.controller.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@AllArgsConstructor
+@Component
+public class SerializedResponseCache {
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    public <T> ResponseEntity<byte[]> getResponse(
+            String cacheName,
+            String key,
+            Supplier<T> loader,
+            Function<T, String> eTagFunction,
+            Function<T, LocalDateTime> expiresAtFunction) {
+
+        SerializedResponse response = get(cacheName, key, loader, eTagFunction, expiresAtFunction);
+        return ResponseEntity.ok()
+                .eTag(response.getETag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.getBody());
+    }
+
+    private <T> SerializedResponse get(
+            String cacheName,
+            String key,
+            Supplier<T> loader,
+            Function<T, String> eTagFunction,
+            Function<T, LocalDateTime> expiresAtFunction) {
+
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return load(loader, eTagFunction, expiresAtFunction);
+        }
+
+        try {
+            return cache.get(key, () -> load(loader, eTagFunction, expiresAtFunction));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> SerializedResponse load(
+            Supplier<T> loader,
+            Function<T, String> eTagFunction,
+            Function<T, LocalDateTime> expiresAtFunction) {
+
+        T value = loader.get();
+        return new SerializedResponse(eTagFunction.apply(value), serialize(value), expiresAtFunction.apply(value));
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not serialize response", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.fenrir.imagelink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class CollectionDeleteResultDto {
+    private int requested;
+    private int deletedCollections;
+    private int deletedImages;
+}
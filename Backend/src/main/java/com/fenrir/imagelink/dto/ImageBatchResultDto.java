@@ -0,0 +1,22 @@
+package com.fenrir.imagelink.dto;
+
+import com.fenrir.imagelink.exception.message.ConstraintViolationInfo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ImageBatchResultDto {
+    private int index;
+    private int status;
+    private ImageResponseDto image;
+    private List<ConstraintViolationInfo> errors;
+}
@@ -0,0 +1,13 @@
+package com.fenrir.imagelink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class ImageRedirectDto {
+    private final String originalUrl;
+    private final LocalDateTime expiresAt;
+}
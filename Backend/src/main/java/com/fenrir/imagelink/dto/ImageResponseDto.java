@@ -1,5 +1,6 @@
 package com.fenrir.imagelink.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -22,4 +23,13 @@ public class ImageResponseDto {
     private String description;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private LocalDateTime expiresAt;
+
+    public ImageResponseDto(String code, String originalUrl, String title, String description,
+                            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(code, originalUrl, title, description, createdAt, updatedAt, null);
+    }
 }
@@ -14,5 +14,6 @@ public interface CollectionMapper {
     @Mapping(target = "code", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "expiresAt", ignore = true)
     Collection fromDto(CollectionRequestDto collectionDto);
 }
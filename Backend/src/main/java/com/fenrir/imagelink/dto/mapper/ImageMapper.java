@@ -11,7 +11,9 @@ import java.util.List;
 
 @Mapper
 public interface ImageMapper {
+    @Mapping(target = "expiresAt", ignore = true)
     ImageResponseDto toDto(Image image);
+
     List<ImageResponseDto> toDto(Collection<Image> images);
 
     @Mapping(target = "id", ignore = true)
@@ -19,5 +21,12 @@ public interface ImageMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "collection", ignore = true)
+    @Mapping(target = "urlStatus", ignore = true)
+    @Mapping(target = "urlHttpStatus", ignore = true)
+    @Mapping(target = "urlContentType", ignore = true)
+    @Mapping(target = "urlContentLength", ignore = true)
+    @Mapping(target = "urlImageWidth", ignore = true)
+    @Mapping(target = "urlImageHeight", ignore = true)
+    @Mapping(target = "urlCheckedAt", ignore = true)
     Image fromDto(ImageRequestDto imageDto);
 }
@@ -0,0 +1,12 @@
+package com.fenrir.imagelink.exception;
+
+public class OriginException extends RuntimeException {
+
+    public OriginException(String message) {
+        super(message);
+    }
+
+    public OriginException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.fenrir.imagelink.exception;
+
+public class ThumbnailException extends RuntimeException {
+
+    public ThumbnailException(String message) {
+        super(message);
+    }
+
+    public ThumbnailException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -17,7 +17,7 @@ public class ConstraintViolationInfo {
     public static ConstraintViolationInfo from(ConstraintViolation<?> cv) {
         return new ConstraintViolationInfo(
                 cv.getPropertyPath().toString(),
-                cv.getInvalidValue().toString(),
+                cv.getInvalidValue() != null ? cv.getInvalidValue().toString() : null,
                 cv.getMessage()
         );
     }
@@ -13,6 +13,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import java.time.LocalDateTime;
 
 @Builder
@@ -24,7 +25,8 @@ import java.time.LocalDateTime;
 public class Collection {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "collection_id_seq")
+    @SequenceGenerator(name = "collection_id_seq", sequenceName = "collection_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 11)
@@ -46,4 +48,7 @@ public class Collection {
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
 }
@@ -12,11 +12,14 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import java.time.LocalDateTime;
 
 @Builder
@@ -28,7 +31,8 @@ import java.time.LocalDateTime;
 public class Image {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_id_seq")
+    @SequenceGenerator(name = "image_id_seq", sequenceName = "image_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 11)
@@ -51,6 +55,22 @@ public class Image {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private UrlStatus urlStatus;
+
+    private Integer urlHttpStatus;
+
+    private String urlContentType;
+
+    private Long urlContentLength;
+
+    private Integer urlImageWidth;
+
+    private Integer urlImageHeight;
+
+    private LocalDateTime urlCheckedAt;
+
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Collection collection;
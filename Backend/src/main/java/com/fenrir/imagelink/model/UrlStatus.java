@@ -0,0 +1,7 @@
+package com.fenrir.imagelink.model;
+
+public enum UrlStatus {
+    REACHABLE,
+    BROKEN,
+    UNREACHABLE
+}
@@ -1,11 +1,28 @@
 package com.fenrir.imagelink.repository;
 
+import com.fenrir.imagelink.dto.CollectionResponseDto;
 import com.fenrir.imagelink.model.Collection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+
+public interface CollectionRepository extends JpaRepository<Collection, Long>, CollectionRepositoryCustom {
+    @Query("select c from Collection c where c.code = :code and c.expiresAt > current_timestamp")
+    Optional<Collection> findByCode(@Param("code") String code);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.fenrir.imagelink.dto.CollectionResponseDto("
+            + "c.code, c.lifePeriod, c.title, c.description, c.createdAt, c.updatedAt, c.expiresAt) "
+            + "from Collection c where c.code = :code and c.expiresAt > current_timestamp")
+    Optional<CollectionResponseDto> findDtoByCode(@Param("code") String code);
 
-public interface CollectionRepository extends JpaRepository<Collection, Long> {
-    Optional<Collection> findByCode(String code);
     boolean existsByCode(String code);
+
+    @Query("select c.code from Collection c where c.code in :codes")
+    List<String> findExistingCodes(@Param("codes") Set<String> codes);
 }
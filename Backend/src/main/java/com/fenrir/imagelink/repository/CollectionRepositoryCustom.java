@@ -0,0 +1,14 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.model.Collection;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CollectionRepositoryCustom {
+    boolean tryInsert(Collection collection);
+    ReapedCollections deleteExpired(int batchSize);
+    Optional<CollectionResponseDto> updateByCode(String code, long lifePeriod, String title, String description);
+    ReapedCollections deleteByCodes(List<String> codes);
+}
@@ -0,0 +1,139 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.model.Collection;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@AllArgsConstructor
+public class CollectionRepositoryCustomImpl implements CollectionRepositoryCustom {
+    private static final String INSERT_SQL = """
+            INSERT INTO collection (code, life_period, title, description, created_at, updated_at, expires_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (code) DO NOTHING
+            RETURNING id
+            """;
+
+    static final String DELETE_EXPIRED_SQL = """
+            WITH expired AS (
+                SELECT id FROM collection
+                WHERE expires_at <= LOCALTIMESTAMP
+                ORDER BY expires_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), deleted_images AS (
+                DELETE FROM image
+                WHERE collection_id IN (SELECT id FROM expired)
+                RETURNING code
+            ), deleted_collections AS (
+                DELETE FROM collection
+                WHERE id IN (SELECT id FROM expired)
+                RETURNING code
+            )
+            SELECT 'collection' AS kind, code FROM deleted_collections
+            UNION ALL
+            SELECT 'image' AS kind, code FROM deleted_images
+            """;
+
+    static final String UPDATE_BY_CODE_SQL = """
+            UPDATE collection
+            SET life_period = ?, title = ?, description = ?, updated_at = ?,
+                expires_at = created_at + ? * INTERVAL '1 millisecond'
+            WHERE code = ? AND expires_at > LOCALTIMESTAMP
+            RETURNING code, life_period, title, description, created_at, updated_at, expires_at
+            """;
+
+    static final String DELETE_BY_CODES_SQL = """
+            WITH deleted_collections AS (
+                DELETE FROM collection
+                WHERE code = ANY (?) AND expires_at > LOCALTIMESTAMP
+                RETURNING id, code
+            ), deleted_images AS (
+                DELETE FROM image
+                WHERE collection_id IN (SELECT id FROM deleted_collections)
+                RETURNING code
+            )
+            SELECT 'collection' AS kind, code FROM deleted_collections
+            UNION ALL
+            SELECT 'image' AS kind, code FROM deleted_images
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryInsert(Collection collection) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = jdbcTemplate.queryForList(
+                INSERT_SQL,
+                Long.class,
+                collection.getCode(),
+                collection.getLifePeriod(),
+                collection.getTitle(),
+                collection.getDescription(),
+                now,
+                now,
+                collection.getExpiresAt()
+        );
+
+        if (ids.isEmpty()) {
+            return false;
+        }
+
+        collection.setId(ids.get(0));
+        collection.setCreatedAt(now);
+        collection.setUpdatedAt(now);
+        return true;
+    }
+
+    @Override
+    public ReapedCollections deleteExpired(int batchSize) {
+        return deleteReturningCodes(DELETE_EXPIRED_SQL, batchSize);
+    }
+
+    @Override
+    public Optional<CollectionResponseDto> updateByCode(String code, long lifePeriod, String title, String description) {
+        List<CollectionResponseDto> updated = jdbcTemplate.query(
+                UPDATE_BY_CODE_SQL,
+                (rs, rowNum) -> new CollectionResponseDto(
+                        rs.getString("code"),
+                        rs.getLong("life_period"),
+                        rs.getString("title"),
+                        rs.getString("description"),
+                        rs.getObject("created_at", LocalDateTime.class),
+                        rs.getObject("updated_at", LocalDateTime.class),
+                        rs.getObject("expires_at", LocalDateTime.class)),
+                lifePeriod,
+                title,
+                description,
+                LocalDateTime.now(),
+                lifePeriod,
+                code
+        );
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public ReapedCollections deleteByCodes(List<String> codes) {
+        return deleteReturningCodes(DELETE_BY_CODES_SQL, (Object) codes.toArray(String[]::new));
+    }
+
+    private ReapedCollections deleteReturningCodes(String sql, Object... args) {
+        List<String> collectionCodes = new ArrayList<>();
+        List<String> imageCodes = new ArrayList<>();
+
+        jdbcTemplate.query(sql, rs -> {
+            if ("collection".equals(rs.getString("kind"))) {
+                collectionCodes.add(rs.getString("code"));
+            } else {
+                imageCodes.add(rs.getString("code"));
+            }
+        }, args);
+
+        return new ReapedCollections(collectionCodes, imageCodes);
+    }
+}
@@ -1,13 +1,83 @@
 package com.fenrir.imagelink.repository;
 
+import com.fenrir.imagelink.dto.ImageRedirectDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
 import com.fenrir.imagelink.model.Image;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface ImageRepository extends JpaRepository<Image, Long>, ImageRepositoryCustom {
+    String SELECT_IMAGE_RESPONSE = "select new com.fenrir.imagelink.dto.ImageResponseDto("
+            + "i.code, i.originalUrl, i.title, i.description, i.createdAt, i.updatedAt) ";
+    String SELECT_EXPIRING_IMAGE_RESPONSE = "select new com.fenrir.imagelink.dto.ImageResponseDto("
+            + "i.code, i.originalUrl, i.title, i.description, i.createdAt, i.updatedAt, i.collection.expiresAt) ";
+
+    @Query("select i from Image i where i.code = :code and i.collection.expiresAt > current_timestamp")
+    Optional<Image> findByCode(@Param("code") String code);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_EXPIRING_IMAGE_RESPONSE
+            + "from Image i where i.code = :code and i.collection.expiresAt > current_timestamp")
+    Optional<ImageResponseDto> findDtoByCode(@Param("code") String code);
+
+    @Query(SELECT_EXPIRING_IMAGE_RESPONSE + "from Image i "
+            + "where i.collection.code = :code and i.collection.expiresAt > current_timestamp")
+    List<ImageResponseDto> findAllByCollectionCode(@Param("code") String code);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.fenrir.imagelink.dto.ImageRedirectDto(i.originalUrl, c.expiresAt) from Image i "
+            + "join i.collection c where i.code = :code and c.expiresAt > current_timestamp")
+    Optional<ImageRedirectDto> findRedirectByCode(@Param("code") String code);
 
-public interface ImageRepository extends JpaRepository<Image, Long> {
-    Optional<Image> findByCode(String code);
-    List<Image> findAllByCollectionCode(String code);
     boolean existsByCode(String code);
+
+    @Query("select i.code from Image i where i.code in :codes")
+    List<String> findExistingCodes(@Param("codes") Set<String> codes);
+
+    @Query(SELECT_IMAGE_RESPONSE + """
+            from Image i
+            where i.collection.id = (
+                select c.id from Collection c
+                where c.code = :code and c.expiresAt > current_timestamp
+            )
+            order by i.id
+            """)
+    List<ImageResponseDto> findPageByCollectionCode(@Param("code") String code, Pageable pageable);
+
+    @Query(SELECT_IMAGE_RESPONSE + """
+            from Image i
+            where i.collection.id = (
+                select c.id from Collection c
+                where c.code = :code and c.expiresAt > current_timestamp
+            )
+              and i.id > (select a.id from Image a where a.code = :after)
+            order by i.id
+            """)
+    List<ImageResponseDto> findPageByCollectionCodeAfter(
+            @Param("code") String code,
+            @Param("after") String after,
+            Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "256"))
+    @Query(SELECT_IMAGE_RESPONSE + """
+            from Image i
+            where i.collection.id = (
+                select c.id from Collection c
+                where c.code = :code and c.expiresAt > current_timestamp
+            )
+            order by i.id
+            """)
+    Stream<ImageResponseDto> streamAllByCollectionCode(@Param("code") String code);
 }
@@ -0,0 +1,14 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.model.Image;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageRepositoryCustom {
+    boolean tryInsert(Image image);
+    void insertAll(List<Image> images);
+    Optional<UpdatedImage> updateByCode(String code, String originalUrl, String title, String description);
+    Optional<String> deleteByCode(String code);
+    boolean recordUrlMetadata(String code, String originalUrl, UrlMetadata metadata);
+}
@@ -0,0 +1,150 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.model.Image;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@AllArgsConstructor
+public class ImageRepositoryCustomImpl implements ImageRepositoryCustom {
+    private static final String INSERT_SQL = """
+            INSERT INTO image (code, original_url, title, description, created_at, updated_at, collection_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (code) DO NOTHING
+            RETURNING id
+            """;
+
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String NEXT_ID_BLOCKS_SQL = "SELECT nextval('image_id_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_BATCH_SQL = """
+            INSERT INTO image (id, code, original_url, title, description, created_at, updated_at, collection_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    static final String UPDATE_BY_CODE_SQL = """
+            UPDATE image i
+            SET original_url = ?, title = ?, description = ?, updated_at = ?
+            FROM collection c
+            WHERE i.code = ? AND c.id = i.collection_id AND c.expires_at > LOCALTIMESTAMP
+            RETURNING i.code, i.original_url, i.title, i.description, i.created_at, i.updated_at,
+                      c.code AS collection_code
+            """;
+
+    static final String DELETE_BY_CODE_SQL = """
+            DELETE FROM image i
+            USING collection c
+            WHERE i.code = ? AND c.id = i.collection_id AND c.expires_at > LOCALTIMESTAMP
+            RETURNING c.code AS collection_code
+            """;
+
+    static final String RECORD_URL_METADATA_SQL = """
+            UPDATE image
+            SET url_status = ?, url_http_status = ?, url_content_type = ?, url_content_length = ?,
+                url_image_width = ?, url_image_height = ?, url_checked_at = ?
+            WHERE code = ? AND original_url = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryInsert(Image image) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = jdbcTemplate.queryForList(
+                INSERT_SQL,
+                Long.class,
+                image.getCode(),
+                image.getOriginalUrl(),
+                image.getTitle(),
+                image.getDescription(),
+                now,
+                now,
+                image.getCollection().getId()
+        );
+
+        if (ids.isEmpty()) {
+            return false;
+        }
+
+        image.setId(ids.get(0));
+        image.setCreatedAt(now);
+        image.setUpdatedAt(now);
+        return true;
+    }
+
+    @Override
+    public void insertAll(List<Image> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int blocks = (images.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_ID_BLOCKS_SQL, Long.class, blocks);
+        for (int i = 0; i < images.size(); i++) {
+            Image image = images.get(i);
+            image.setId(blockStarts.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE);
+            image.setCreatedAt(now);
+            image.setUpdatedAt(now);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_BATCH_SQL, images, images.size(), (ps, image) -> {
+            ps.setLong(1, image.getId());
+            ps.setString(2, image.getCode());
+            ps.setString(3, image.getOriginalUrl());
+            ps.setString(4, image.getTitle());
+            ps.setString(5, image.getDescription());
+            ps.setObject(6, image.getCreatedAt());
+            ps.setObject(7, image.getUpdatedAt());
+            ps.setLong(8, image.getCollection().getId());
+        });
+    }
+
+    @Override
+    public Optional<UpdatedImage> updateByCode(String code, String originalUrl, String title, String description) {
+        List<UpdatedImage> updated = jdbcTemplate.query(
+                UPDATE_BY_CODE_SQL,
+                (rs, rowNum) -> new UpdatedImage(
+                        new ImageResponseDto(
+                                rs.getString("code"),
+                                rs.getString("original_url"),
+                                rs.getString("title"),
+                                rs.getString("description"),
+                                rs.getObject("created_at", LocalDateTime.class),
+                                rs.getObject("updated_at", LocalDateTime.class)),
+                        rs.getString("collection_code")),
+                originalUrl,
+                title,
+                description,
+                LocalDateTime.now(),
+                code
+        );
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public Optional<String> deleteByCode(String code) {
+        return jdbcTemplate.queryForList(DELETE_BY_CODE_SQL, String.class, code).stream().findFirst();
+    }
+
+    @Override
+    public boolean recordUrlMetadata(String code, String originalUrl, UrlMetadata metadata) {
+        return jdbcTemplate.update(
+                RECORD_URL_METADATA_SQL,
+                metadata.getStatus().name(),
+                metadata.getHttpStatus(),
+                metadata.getContentType(),
+                metadata.getContentLength(),
+                metadata.getWidth(),
+                metadata.getHeight(),
+                metadata.getCheckedAt(),
+                code,
+                originalUrl
+        ) > 0;
+    }
+}
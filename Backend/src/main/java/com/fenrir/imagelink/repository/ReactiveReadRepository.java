@@ -0,0 +1,84 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import io.r2dbc.spi.Readable;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Repository
+public class ReactiveReadRepository {
+    static final String FIND_IMAGE_BY_CODE_SQL = """
+            SELECT i.code, i.original_url, i.title, i.description, i.created_at, i.updated_at
+            FROM image i
+            JOIN collection c ON c.id = i.collection_id
+            WHERE i.code = $1 AND c.expires_at > LOCALTIMESTAMP
+            """;
+
+    static final String FIND_COLLECTION_BY_CODE_SQL = """
+            SELECT code, life_period, title, description, created_at, updated_at, expires_at
+            FROM collection
+            WHERE code = $1 AND expires_at > LOCALTIMESTAMP
+            """;
+
+    static final String FIND_IMAGES_BY_COLLECTION_CODE_SQL = """
+            SELECT i.code, i.original_url, i.title, i.description, i.created_at, i.updated_at
+            FROM image i
+            WHERE i.collection_id = (
+                SELECT c.id FROM collection c WHERE c.code = $1 AND c.expires_at > LOCALTIMESTAMP
+            )
+            ORDER BY i.id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Image> findImageByCode(String code) {
+        return databaseClient.sql(FIND_IMAGE_BY_CODE_SQL)
+                .bind(0, code)
+                .map(ReactiveReadRepository::toImage)
+                .one();
+    }
+
+    public Mono<Collection> findCollectionByCode(String code) {
+        return databaseClient.sql(FIND_COLLECTION_BY_CODE_SQL)
+                .bind(0, code)
+                .map(ReactiveReadRepository::toCollection)
+                .one();
+    }
+
+    public Flux<Image> findImagesByCollectionCode(String collectionCode) {
+        return databaseClient.sql(FIND_IMAGES_BY_COLLECTION_CODE_SQL)
+                .bind(0, collectionCode)
+                .map(ReactiveReadRepository::toImage)
+                .all();
+    }
+
+    private static Image toImage(Readable row) {
+        return Image.builder()
+                .code(row.get("code", String.class))
+                .originalUrl(row.get("original_url", String.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
+
+    private static Collection toCollection(Readable row) {
+        return Collection.builder()
+                .code(row.get("code", String.class))
+                .lifePeriod(row.get("life_period", Long.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .expiresAt(row.get("expires_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.fenrir.imagelink.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class ReapedCollections {
+    private final List<String> collectionCodes;
+    private final List<String> imageCodes;
+}
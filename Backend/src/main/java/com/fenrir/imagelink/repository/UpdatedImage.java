@@ -0,0 +1,12 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class UpdatedImage {
+    private final ImageResponseDto image;
+    private final String collectionCode;
+}
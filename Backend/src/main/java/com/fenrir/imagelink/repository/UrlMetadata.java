@@ -0,0 +1,21 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.model.UrlStatus;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class UrlMetadata {
+    private final UrlStatus status;
+    private final Integer httpStatus;
+    private final String contentType;
+    private final Long contentLength;
+    private final Integer width;
+    private final Integer height;
+    private final LocalDateTime checkedAt;
+}
@@ -0,0 +1,43 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.CacheNames;
+import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+@AllArgsConstructor
+@Component
+public class CacheInvalidator {
+    private final CacheManager cacheManager;
+    private final RedirectCache redirectCache;
+    private final ReadYourWrites readYourWrites;
+
+    public void evictImage(String code) {
+        evict(CacheNames.IMAGES, code);
+        evict(CacheNames.IMAGE_RESPONSES, code);
+        redirectCache.evict(code);
+        readYourWrites.written(code);
+    }
+
+    public void evictImages(Iterable<String> codes) {
+        codes.forEach(this::evictImage);
+    }
+
+    public void evictCollection(String code) {
+        evict(CacheNames.COLLECTIONS, code);
+        evictCollectionImages(code);
+    }
+
+    public void evictCollectionImages(String collectionCode) {
+        evict(CacheNames.COLLECTION_IMAGES_RESPONSES, collectionCode);
+        readYourWrites.written(collectionCode);
+    }
+
+    private void evict(String cacheName, String code) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(code);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fenrir.imagelink.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.nio.file.Path;
+
+@AllArgsConstructor
+@Getter
+public class CachedFile {
+    private final Path path;
+    private final MediaType mediaType;
+    private final long length;
+    private final String contentHash;
+}
@@ -0,0 +1,76 @@
+package com.fenrir.imagelink.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class CodeGenerationMetrics implements MeterBinder {
+    private final Counters images = new Counters("image");
+    private final Counters collections = new Counters("collection");
+
+    public Counters images() {
+        return images;
+    }
+
+    public Counters collections() {
+        return collections;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Counters counters : List.of(images, collections)) {
+            FunctionCounter.builder("imagelink.code.generation.attempts", counters.attempts, LongAdder::sum)
+                    .tag("kind", counters.kind)
+                    .description("Random codes generated")
+                    .register(registry);
+            FunctionCounter.builder("imagelink.code.generation.collisions", counters.collisions, LongAdder::sum)
+                    .tag("kind", counters.kind)
+                    .description("Generated codes that were already taken and had to be retried")
+                    .register(registry);
+            FunctionCounter.builder("imagelink.code.generation.failures", counters.failures, LongAdder::sum)
+                    .tag("kind", counters.kind)
+                    .description("Saves rejected after exhausting code generation retries")
+                    .register(registry);
+        }
+    }
+
+    public static final class Counters {
+        private final String kind;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder collisions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        Counters(String kind) {
+            this.kind = kind;
+        }
+
+        public void attempted(int count) {
+            attempts.add(count);
+        }
+
+        public void collided(int count) {
+            collisions.add(count);
+        }
+
+        public void failed() {
+            failures.increment();
+        }
+
+        public long attempts() {
+            return attempts.sum();
+        }
+
+        public long collisions() {
+            return collisions.sum();
+        }
+
+        public long failures() {
+            return failures.sum();
+        }
+    }
+}
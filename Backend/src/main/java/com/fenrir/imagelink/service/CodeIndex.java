@@ -0,0 +1,278 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.CodeIndexProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory set of every image and collection code, used to answer "not found" without a query.
+ * Codes only enter the set when this instance loads or writes them, so a code inserted by another
+ * instance looks absent here and its lookups return a false 404. Enable the index only when a single
+ * instance writes to the database.
+ */
+@Slf4j
+@Component
+public class CodeIndex implements MeterBinder {
+    private static final String SELECT_IMAGE_CODES_SQL = "SELECT code FROM image";
+    private static final String SELECT_COLLECTION_CODES_SQL = "SELECT code FROM collection";
+
+    private final CodeIndexProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+
+    private final Table images;
+    private final Table collections;
+    private volatile boolean ready;
+
+    public CodeIndex(CodeIndexProperties properties, JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.images = new Table("image", membership(properties, properties.getExpectedSize()));
+        this.collections = new Table("collection", membership(properties, properties.getExpectedSize() / 10));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Thread builder = new Thread(this::build, "code-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    public void build() {
+        long start = System.nanoTime();
+        transactionOperations.executeWithoutResult(status -> {
+            load(SELECT_COLLECTION_CODES_SQL, collections);
+            load(SELECT_IMAGE_CODES_SQL, images);
+        });
+        ready = true;
+
+        log.info("Code index ({}) built with {} image and {} collection codes in {} ms, {} MB",
+                properties.getType(), images.codes.size(), collections.codes.size(),
+                (System.nanoTime() - start) / 1_000_000, memoryBytes() >> 20);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isImageAbsent(String code) {
+        return isAbsent(images, code);
+    }
+
+    public boolean isCollectionAbsent(String code) {
+        return isAbsent(collections, code);
+    }
+
+    public <T> Optional<T> findImage(String code, Function<String, Optional<T>> lookup) {
+        return find(images, isImageAbsent(code), code, lookup);
+    }
+
+    public <T> Optional<T> findCollection(String code, Function<String, Optional<T>> lookup) {
+        return find(collections, isCollectionAbsent(code), code, lookup);
+    }
+
+    public boolean imageExists(String code, Predicate<String> query) {
+        return findImage(code, candidate -> Optional.of(candidate).filter(query)).isPresent();
+    }
+
+    public boolean collectionExists(String code, Predicate<String> query) {
+        return findCollection(code, candidate -> Optional.of(candidate).filter(query)).isPresent();
+    }
+
+    public List<String> existingImages(Set<String> candidates, Function<Set<String>, List<String>> query) {
+        Set<String> unknown = new HashSet<>(candidates);
+        unknown.removeIf(this::isImageAbsent);
+        if (unknown.isEmpty()) {
+            return List.of();
+        }
+        List<String> existing = query.apply(unknown);
+        if (ready) {
+            images.queried.add(unknown.size());
+            images.falsePositives.add(unknown.size() - existing.size());
+        }
+        return existing;
+    }
+
+    public void imageAdded(String code) {
+        add(images, code);
+    }
+
+    public void collectionAdded(String code) {
+        add(collections, code);
+    }
+
+    public void imagesRemoved(Iterable<String> codes) {
+        afterCommit(() -> codes.forEach(code -> remove(images, code)));
+    }
+
+    public void collectionRemoved(String code) {
+        afterCommit(() -> remove(collections, code));
+    }
+
+    public long imageCount() {
+        return images.codes.size();
+    }
+
+    public long collectionCount() {
+        return collections.codes.size();
+    }
+
+    public long memoryBytes() {
+        return images.codes.memoryBytes() + collections.codes.memoryBytes();
+    }
+
+    public double imageFalsePositiveRate() {
+        return images.falsePositiveRate();
+    }
+
+    public double collectionFalsePositiveRate() {
+        return collections.falsePositiveRate();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (Table table : List.of(images, collections)) {
+            Gauge.builder("imagelink.code.index.codes", table.codes, CodeMembership::size)
+                    .tag("kind", table.kind)
+                    .register(registry);
+            Gauge.builder("imagelink.code.index.memory", table.codes, CodeMembership::memoryBytes)
+                    .tag("kind", table.kind)
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("imagelink.code.index.false.positive.rate", table, Table::falsePositiveRate)
+                    .tag("kind", table.kind)
+                    .description("Share of codes not in the database that the index could not prove absent")
+                    .register(registry);
+            Gauge.builder("imagelink.code.index.expected.false.positive.rate", table.codes,
+                            CodeMembership::expectedFalsePositiveRate)
+                    .tag("kind", table.kind)
+                    .register(registry);
+            FunctionCounter.builder("imagelink.code.index.lookups", table.absent, LongAdder::sum)
+                    .tags("kind", table.kind, "result", "absent")
+                    .register(registry);
+            FunctionCounter.builder("imagelink.code.index.lookups", table.queried, LongAdder::sum)
+                    .tags("kind", table.kind, "result", "queried")
+                    .register(registry);
+            FunctionCounter.builder("imagelink.code.index.lookups", table.falsePositives, LongAdder::sum)
+                    .tags("kind", table.kind, "result", "false-positive")
+                    .register(registry);
+        }
+    }
+
+    private boolean isAbsent(Table table, String code) {
+        if (!ready || !Codes.isEncodable(code)) {
+            return false;
+        }
+        if (table.codes.mightContain(Codes.encode(code))) {
+            return false;
+        }
+        table.absent.increment();
+        return true;
+    }
+
+    private <T> Optional<T> find(Table table, boolean absent, String code, Function<String, Optional<T>> lookup) {
+        if (absent) {
+            return Optional.empty();
+        }
+        Optional<T> result = lookup.apply(code);
+        if (ready && Codes.isEncodable(code)) {
+            table.queried.increment();
+            if (result.isEmpty()) {
+                table.falsePositives.increment();
+            }
+        }
+        return result;
+    }
+
+    private void add(Table table, String code) {
+        if (properties.isEnabled() && Codes.isEncodable(code)) {
+            table.codes.add(Codes.encode(code));
+        }
+    }
+
+    private void remove(Table table, String code) {
+        if (properties.isEnabled() && Codes.isEncodable(code)) {
+            table.codes.remove(Codes.encode(code));
+        }
+    }
+
+    private void load(String sql, Table table) {
+        PreparedStatementCreator streamingStatement = connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(properties.getFetchSize());
+            return statement;
+        };
+        jdbcTemplate.query(streamingStatement, resultSet -> {
+            String code = resultSet.getString(1);
+            if (Codes.isEncodable(code)) {
+                table.codes.add(Codes.encode(code));
+            }
+        });
+    }
+
+    private static CodeMembership membership(CodeIndexProperties properties, long expectedSize) {
+        long size = properties.isEnabled() ? expectedSize : 0;
+        if (properties.getType() == CodeIndexProperties.Type.BLOOM) {
+            return new ScalableBloomFilter(size, properties.getFalsePositiveRate());
+        }
+        return new OffHeapCodeTable(size);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Table {
+        private final String kind;
+        private final CodeMembership codes;
+        private final LongAdder absent = new LongAdder();
+        private final LongAdder queried = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+
+        Table(String kind, CodeMembership codes) {
+            this.kind = kind;
+            this.codes = codes;
+        }
+
+        double falsePositiveRate() {
+            long negatives = falsePositives.sum() + absent.sum();
+            return negatives == 0 ? 0 : (double) falsePositives.sum() / negatives;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fenrir.imagelink.service;
+
+public interface CodeMembership {
+
+    boolean mightContain(long code);
+
+    void add(long code);
+
+    void remove(long code);
+
+    long size();
+
+    long memoryBytes();
+
+    double expectedFalsePositiveRate();
+}
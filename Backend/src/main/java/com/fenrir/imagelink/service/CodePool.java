@@ -0,0 +1,121 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.CodePoolProperties;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Service
+public class CodePool implements MeterBinder {
+    private static final int CODE_LENGTH = 11;
+
+    private final RandomStringService randomStringService;
+    private final CodePoolProperties properties;
+
+    private final Pool collectionCodes;
+    private final Pool imageCodes;
+
+    public CodePool(
+            RandomStringService randomStringService,
+            CollectionRepository collectionRepository,
+            ImageRepository imageRepository,
+            CodePoolProperties properties,
+            CodeGenerationMetrics codeGenerationMetrics) {
+
+        this.randomStringService = randomStringService;
+        this.properties = properties;
+        this.collectionCodes = new Pool(collectionRepository::findExistingCodes, codeGenerationMetrics.collections());
+        this.imageCodes = new Pool(imageRepository::findExistingCodes, codeGenerationMetrics.images());
+    }
+
+    public Optional<String> pollCollectionCode() {
+        return collectionCodes.poll();
+    }
+
+    public Optional<String> pollImageCode() {
+        return imageCodes.poll();
+    }
+
+    public int collectionCodesAvailable() {
+        return collectionCodes.size();
+    }
+
+    public int imageCodesAvailable() {
+        return imageCodes.size();
+    }
+
+    @Scheduled(fixedDelayString = "${imagelink.code-pool.refill-interval:PT1S}")
+    public void refill() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        collectionCodes.refill();
+        imageCodes.refill();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("imagelink.code.pool.available", this, CodePool::collectionCodesAvailable)
+                .tag("kind", "collection")
+                .register(registry);
+        Gauge.builder("imagelink.code.pool.available", this, CodePool::imageCodesAvailable)
+                .tag("kind", "image")
+                .register(registry);
+    }
+
+    private class Pool {
+        private final Queue<String> codes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final Function<Set<String>, List<String>> existingCodesFinder;
+        private final CodeGenerationMetrics.Counters counters;
+
+        Pool(Function<Set<String>, List<String>> existingCodesFinder, CodeGenerationMetrics.Counters counters) {
+            this.existingCodesFinder = existingCodesFinder;
+            this.counters = counters;
+        }
+
+        Optional<String> poll() {
+            String code = codes.poll();
+            if (code != null) {
+                size.decrementAndGet();
+            }
+            return Optional.ofNullable(code);
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        void refill() {
+            int missing = properties.getCapacity() - size.get();
+
+            while (missing > 0) {
+                int count = Math.min(missing, properties.getBatchSize());
+                Set<String> candidates = new HashSet<>(count * 2);
+                while (candidates.size() < count) {
+                    candidates.add(randomStringService.generate(CODE_LENGTH));
+                }
+
+                counters.attempted(count);
+                existingCodesFinder.apply(candidates).forEach(candidates::remove);
+                counters.collided(count - candidates.size());
+                codes.addAll(candidates);
+                size.addAndGet(candidates.size());
+                missing -= count;
+            }
+        }
+    }
+}
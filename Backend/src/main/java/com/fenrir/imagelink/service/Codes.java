@@ -0,0 +1,71 @@
+package com.fenrir.imagelink.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class Codes {
+    public static final int LENGTH = 11;
+
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private Codes() { }
+
+    public static boolean isEncodable(String code) {
+        if (code == null || code.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = code.charAt(i);
+            if (c >= VALUES.length || VALUES[c] < 0) {
+                return false;
+            }
+        }
+        return (VALUES[code.charAt(LENGTH - 1)] & 0b11) == 0;
+    }
+
+    public static long encode(String code) {
+        if (code == null || code.length() != LENGTH) {
+            throw notEncodable(code);
+        }
+        long value = 0;
+        int invalid = 0;
+        for (int i = 0; i < LENGTH - 1; i++) {
+            int digit = digit(code.charAt(i));
+            invalid |= digit;
+            value = (value << 6) | (digit & 0x3F);
+        }
+        int last = digit(code.charAt(LENGTH - 1));
+        if ((invalid | last) < 0 || (last & 0b11) != 0) {
+            throw notEncodable(code);
+        }
+        return (value << 4) | (last >>> 2);
+    }
+
+    public static String decode(long value) {
+        byte[] chars = new byte[LENGTH];
+        chars[LENGTH - 1] = ALPHABET[(int) (value & 0xF) << 2];
+        value >>>= 4;
+        for (int i = LENGTH - 2; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 0x3F)];
+            value >>>= 6;
+        }
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int digit(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+
+    private static IllegalArgumentException notEncodable(String code) {
+        return new IllegalArgumentException("Code is not an 11 character base64url encoding of 64 bits: " + code);
+    }
+}
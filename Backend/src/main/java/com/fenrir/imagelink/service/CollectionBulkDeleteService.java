@@ -0,0 +1,57 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.BulkDeleteProperties;
+import com.fenrir.imagelink.dto.CollectionDeleteResultDto;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ReapedCollections;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Service
+@Timed("imagelink.service")
+public class CollectionBulkDeleteService {
+    private final CollectionRepository collectionRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionOperations transactionOperations;
+    private final BulkDeleteProperties properties;
+    private final CodeIndex codeIndex;
+
+    public CollectionDeleteResultDto deleteCollections(List<String> codes) {
+        List<String> distinctCodes = codes.stream().distinct().toList();
+        List<String> candidates = distinctCodes.stream()
+                .filter(code -> !codeIndex.isCollectionAbsent(code))
+                .sorted()
+                .toList();
+
+        int deletedCollections = 0;
+        int deletedImages = 0;
+        for (int from = 0; from < candidates.size(); from += properties.getChunkSize()) {
+            List<String> chunk = candidates.subList(from, Math.min(from + properties.getChunkSize(), candidates.size()));
+            ReapedCollections deleted = transactionOperations.execute(status -> deleteChunk(chunk));
+            if (deleted != null) {
+                deletedCollections += deleted.getCollectionCodes().size();
+                deletedImages += deleted.getImageCodes().size();
+            }
+        }
+
+        return CollectionDeleteResultDto.builder()
+                .requested(distinctCodes.size())
+                .deletedCollections(deletedCollections)
+                .deletedImages(deletedImages)
+                .build();
+    }
+
+    private ReapedCollections deleteChunk(List<String> codes) {
+        ReapedCollections deleted = collectionRepository.deleteByCodes(codes);
+        deleted.getCollectionCodes().forEach(cacheInvalidator::evictCollection);
+        cacheInvalidator.evictImages(deleted.getImageCodes());
+        deleted.getCollectionCodes().forEach(codeIndex::collectionRemoved);
+        codeIndex.imagesRemoved(deleted.getImageCodes());
+        return deleted;
+    }
+}
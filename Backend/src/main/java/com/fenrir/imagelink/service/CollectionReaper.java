@@ -0,0 +1,42 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.ExpiryProperties;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ReapedCollections;
+import lombok.AllArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+@AllArgsConstructor
+@Service
+public class CollectionReaper {
+    private final CollectionRepository collectionRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionOperations transactionOperations;
+    private final ExpiryProperties properties;
+    private final CodeIndex codeIndex;
+
+    @Scheduled(fixedDelayString = "${imagelink.expiry.reap-interval:PT1M}")
+    public void reap() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            Integer deleted = transactionOperations.execute(status -> reapBatch());
+            if (deleted == null || deleted < properties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private int reapBatch() {
+        ReapedCollections reaped = collectionRepository.deleteExpired(properties.getBatchSize());
+        reaped.getCollectionCodes().forEach(cacheInvalidator::evictCollection);
+        cacheInvalidator.evictImages(reaped.getImageCodes());
+        reaped.getCollectionCodes().forEach(codeIndex::collectionRemoved);
+        codeIndex.imagesRemoved(reaped.getImageCodes());
+        return reaped.getCollectionCodes().size();
+    }
+}
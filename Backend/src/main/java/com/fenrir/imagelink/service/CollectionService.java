@@ -1,27 +1,56 @@
 package com.fenrir.imagelink.service;
 
+import com.fenrir.imagelink.config.CacheNames;
+import com.fenrir.imagelink.config.CodeGenerationProperties;
 import com.fenrir.imagelink.dto.CollectionRequestDto;
 import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageBatchResultDto;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
 import com.fenrir.imagelink.dto.mapper.CollectionMapper;
 import com.fenrir.imagelink.dto.mapper.ImageMapper;
 import com.fenrir.imagelink.exception.CodeGenerationException;
 import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.exception.message.ConstraintViolationInfo;
 import com.fenrir.imagelink.model.Collection;
 import com.fenrir.imagelink.model.Image;
 import com.fenrir.imagelink.repository.CollectionRepository;
 import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.repository.ReapedCollections;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Service
+@Timed("imagelink.service")
 public class CollectionService {
     private final RandomStringService randomStringService;
+    private final CodePool codePool;
+    private final CodeGenerationProperties codeGenerationProperties;
 
     private final CollectionRepository collectionRepository;
     private final ImageRepository imageRepository;
@@ -29,64 +58,265 @@ public class CollectionService {
     private final CollectionMapper collectionMapper;
     private final ImageMapper imageMapper;
 
+    private final CacheInvalidator cacheInvalidator;
+
+    private final Validator validator;
+    private final CodeIndex codeIndex;
+    private final CodeGenerationMetrics codeGenerationMetrics;
+    private final UrlValidationWorker urlValidationWorker;
+    private final LookupCoalescer lookupCoalescer;
+    private final ReadYourWrites readYourWrites;
+
+    @Cacheable(cacheNames = CacheNames.COLLECTIONS, key = "#code", sync = true)
     public CollectionResponseDto getCollection(String code) {
-        return collectionMapper.toDto(getCollectionByCode(code));
+        return readYourWrites.read(code, () -> lookupCoalescer.collection(code, () ->
+                        codeIndex.findCollection(code, collectionRepository::findDtoByCode)))
+                .orElseThrow(() -> collectionNotFound(code));
     }
 
+    @Transactional(readOnly = true)
     public List<ImageResponseDto> getAllImagesByCollectionCode(String collectionCode) {
-        List<Image> images = imageRepository.findAllByCollectionCode(collectionCode);
-        return imageMapper.toDto(images);
+        return readYourWrites.read(collectionCode, () -> imageRepository.findAllByCollectionCode(collectionCode));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ImageResponseDto> getImagesPageByCollectionCode(String collectionCode, String after, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit);
+        return readYourWrites.read(collectionCode, () -> after == null
+                ? imageRepository.findPageByCollectionCode(collectionCode, pageable)
+                : pageAfter(collectionCode, after, pageable));
     }
 
+    @Transactional(readOnly = true)
+    public void streamAllImagesByCollectionCode(String collectionCode, Consumer<ImageResponseDto> consumer) {
+        readYourWrites.read(collectionCode, () -> {
+            try (Stream<ImageResponseDto> images = imageRepository.streamAllByCollectionCode(collectionCode)) {
+                images.forEach(consumer);
+            }
+        });
+    }
+
+    @Transactional
     public CollectionResponseDto saveCollection(CollectionRequestDto collectionToSave) {
         Collection collection = collectionMapper.fromDto(collectionToSave);
-        collection.setCode(generateCode(collectionRepository::existsByCode));
-        collection = collectionRepository.save(collection);
-        return collectionMapper.toDto(collection);
+        collection.setExpiresAt(expiresAt(LocalDateTime.now(), collection.getLifePeriod()));
+
+        if (isOptimisticCodeGeneration()) {
+            insertWithUniqueCode(codePool::pollCollectionCode, collection::setCode,
+                    () -> collectionRepository.tryInsert(collection), codeGenerationMetrics.collections());
+            codeIndex.collectionAdded(collection.getCode());
+            readYourWrites.written(collection.getCode());
+            return collectionMapper.toDto(collection);
+        }
+
+        collection.setCode(codePool.pollCollectionCode()
+                .orElseGet(() -> generateCode(this::collectionCodeExists, codeGenerationMetrics.collections())));
+        Collection savedCollection = collectionRepository.save(collection);
+        codeIndex.collectionAdded(savedCollection.getCode());
+        readYourWrites.written(savedCollection.getCode());
+        return collectionMapper.toDto(savedCollection);
     }
 
+    @Transactional
     public ImageResponseDto saveImage(String collectionCode, ImageRequestDto imageToSave) {
         Collection collection = getCollectionByCode(collectionCode);
         Image image = imageMapper.fromDto(imageToSave);
-        image.setCode(generateCode(imageRepository::existsByCode));
         image.setCollection(collection);
-        image = imageRepository.save(image);
-        return imageMapper.toDto(image);
+
+        cacheInvalidator.evictCollectionImages(collectionCode);
+
+        if (isOptimisticCodeGeneration()) {
+            insertWithUniqueCode(codePool::pollImageCode, image::setCode,
+                    () -> imageRepository.tryInsert(image), codeGenerationMetrics.images());
+            codeIndex.imageAdded(image.getCode());
+            readYourWrites.written(image.getCode());
+            urlValidationWorker.enqueue(image.getCode(), image.getOriginalUrl());
+            return imageMapper.toDto(image);
+        }
+
+        image.setCode(codePool.pollImageCode()
+                .orElseGet(() -> generateCode(this::imageCodeExists, codeGenerationMetrics.images())));
+        Image savedImage = imageRepository.save(image);
+        codeIndex.imageAdded(savedImage.getCode());
+        readYourWrites.written(savedImage.getCode());
+        urlValidationWorker.enqueue(savedImage.getCode(), savedImage.getOriginalUrl());
+        return imageMapper.toDto(savedImage);
     }
 
+    @Transactional
+    public List<ImageBatchResultDto> saveImages(String collectionCode, List<ImageRequestDto> imagesToSave) {
+        Collection collection = getCollectionByCode(collectionCode);
+        ImageBatchResultDto[] results = new ImageBatchResultDto[imagesToSave.size()];
+        List<Integer> validIndexes = new ArrayList<>(imagesToSave.size());
+
+        for (int i = 0; i < imagesToSave.size(); i++) {
+            Set<ConstraintViolation<ImageRequestDto>> violations = validator.validate(imagesToSave.get(i));
+            if (violations.isEmpty()) {
+                validIndexes.add(i);
+            } else {
+                results[i] = ImageBatchResultDto.builder()
+                        .index(i)
+                        .status(HttpStatus.CONFLICT.value())
+                        .errors(violations.stream().map(ConstraintViolationInfo::from).toList())
+                        .build();
+            }
+        }
+
+        Iterator<String> codes = allocateImageCodes(validIndexes.size()).iterator();
+        List<Image> images = new ArrayList<>(validIndexes.size());
+        for (int index : validIndexes) {
+            Image image = imageMapper.fromDto(imagesToSave.get(index));
+            image.setCollection(collection);
+            image.setCode(codes.next());
+            images.add(image);
+        }
+        imageRepository.insertAll(images);
+        images.forEach(image -> {
+            codeIndex.imageAdded(image.getCode());
+            readYourWrites.written(image.getCode());
+            urlValidationWorker.enqueue(image.getCode(), image.getOriginalUrl());
+        });
+
+        for (int i = 0; i < images.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = ImageBatchResultDto.builder()
+                    .index(index)
+                    .status(HttpStatus.CREATED.value())
+                    .image(imageMapper.toDto(images.get(i)))
+                    .build();
+        }
+
+        if (!images.isEmpty()) {
+            cacheInvalidator.evictCollectionImages(collectionCode);
+        }
+        return Arrays.asList(results);
+    }
+
+    @Transactional
     public CollectionResponseDto updateCollection(String code, CollectionRequestDto updatedCollection) {
-        Collection collectionToUpdate = getCollectionByCode(code);
-        collectionToUpdate.setLifePeriod(updatedCollection.getLifePeriod());
-        collectionToUpdate.setTitle(updatedCollection.getTitle());
-        collectionToUpdate.setDescription(updatedCollection.getDescription());
-        collectionToUpdate = collectionRepository.save(collectionToUpdate);
-        return collectionMapper.toDto(collectionToUpdate);
+        CollectionResponseDto updated = codeIndex.findCollection(code, candidate -> collectionRepository.updateByCode(
+                        candidate,
+                        updatedCollection.getLifePeriod(),
+                        updatedCollection.getTitle(),
+                        updatedCollection.getDescription()))
+                .orElseThrow(() -> collectionNotFound(code));
+        cacheInvalidator.evictCollection(code);
+        return updated;
     }
 
+    @Transactional
     public void deleteCollection(String code) {
-        collectionRepository.delete(getCollectionByCode(code));
+        ReapedCollections deleted = codeIndex.findCollection(code, candidate ->
+                        Optional.of(collectionRepository.deleteByCodes(List.of(candidate)))
+                                .filter(result -> !result.getCollectionCodes().isEmpty()))
+                .orElseThrow(() -> collectionNotFound(code));
+        cacheInvalidator.evictCollection(code);
+        cacheInvalidator.evictImages(deleted.getImageCodes());
+        codeIndex.collectionRemoved(code);
+        codeIndex.imagesRemoved(deleted.getImageCodes());
+    }
+
+    private String generateCode(Predicate<String> existsByCodePredicate, CodeGenerationMetrics.Counters counters) {
+        for (int attempt = 0; attempt < 10; attempt++) {
+            String code = randomCode(counters);
+            if (!existsByCodePredicate.test(code)) {
+                return code;
+            }
+            counters.collided(1);
+        }
+
+        counters.failed();
+        throw new CodeGenerationException("Failed to generate code");
     }
 
-    private String generateCode(Predicate<String> existsByCodePredicate) {
-        int count = 0;
-        String code;
+    private Set<String> allocateImageCodes(int count) {
+        Set<String> codes = new LinkedHashSet<>(count);
+        Optional<String> pooledCode;
+        while (codes.size() < count && (pooledCode = codePool.pollImageCode()).isPresent()) {
+            codes.add(pooledCode.get());
+        }
 
-        do {
-            code = randomStringService.generate(11);
-            count++;
-        } while (existsByCodePredicate.test(code) && count < 10);
+        CodeGenerationMetrics.Counters counters = codeGenerationMetrics.images();
+        for (int attempt = 0; codes.size() < count; attempt++) {
+            if (attempt == 10) {
+                counters.failed();
+                throw new CodeGenerationException("Failed to generate code");
+            }
 
-        if (existsByCodePredicate.test(code)) {
-            throw new CodeGenerationException("Failed to generate code");
+            Set<String> candidates = new HashSet<>();
+            while (candidates.size() < count - codes.size()) {
+                candidates.add(randomStringService.generate(11));
+            }
+            counters.attempted(candidates.size());
+            candidates.removeAll(codes);
+            codeIndex.existingImages(candidates, imageRepository::findExistingCodes).forEach(candidates::remove);
+            counters.collided(count - codes.size() - candidates.size());
+            codes.addAll(candidates);
         }
 
-        return code;
+        return codes;
+    }
+
+    private boolean collectionCodeExists(String code) {
+        return codeIndex.collectionExists(code, collectionRepository::existsByCode);
+    }
+
+    private boolean imageCodeExists(String code) {
+        return codeIndex.imageExists(code, imageRepository::existsByCode);
+    }
+
+    private static LocalDateTime expiresAt(LocalDateTime from, long lifePeriod) {
+        return from.plus(Duration.ofMillis(lifePeriod));
+    }
+
+    private boolean isOptimisticCodeGeneration() {
+        return codeGenerationProperties.getStrategy() == CodeGenerationProperties.Strategy.OPTIMISTIC;
+    }
+
+    private void insertWithUniqueCode(
+            Supplier<Optional<String>> pooledCodeSupplier,
+            Consumer<String> codeSetter,
+            BooleanSupplier insert,
+            CodeGenerationMetrics.Counters counters) {
+
+        String code = pooledCodeSupplier.get()
+                .orElseGet(() -> randomCode(counters));
+
+        for (int count = 1; ; count++) {
+            codeSetter.accept(code);
+            if (insert.getAsBoolean()) {
+                return;
+            }
+            counters.collided(1);
+            if (count == 10) {
+                break;
+            }
+            code = randomCode(counters);
+        }
+
+        counters.failed();
+        throw new CodeGenerationException("Failed to generate code");
+    }
+
+    private String randomCode(CodeGenerationMetrics.Counters counters) {
+        counters.attempted(1);
+        return randomStringService.generate(11);
     }
 
     private Collection getCollectionByCode(String code) {
-        return collectionRepository.findByCode(code)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        String.format("Collection was not found for code = %s", code)
-                ));
+        return codeIndex.findCollection(code, collectionRepository::findByCode)
+                .orElseThrow(() -> collectionNotFound(code));
+    }
+
+    private List<ImageResponseDto> pageAfter(String collectionCode, String after, Pageable pageable) {
+        List<ImageResponseDto> page = imageRepository.findPageByCollectionCodeAfter(collectionCode, after, pageable);
+        if (page.isEmpty() && !imageRepository.existsByCode(after)) {
+            throw new ResourceNotFoundException(String.format("Cursor image was not found for code = %s", after));
+        }
+        return page;
+    }
+
+    private static ResourceNotFoundException collectionNotFound(String code) {
+        return new ResourceNotFoundException(String.format("Collection was not found for code = %s", code));
     }
 }
@@ -0,0 +1,202 @@
+package com.fenrir.imagelink.service;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+public class ContentCache {
+    private static final Pattern SHARD_NAME = Pattern.compile("[0-9a-f]{2}");
+    private static final Pattern CONTENT_NAME = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMPORARY_PREFIX = "fetch-";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration evictedFileRetention;
+    private final ScheduledExecutorService deleter;
+    private final Object[] shardLocks = new Object[256];
+    private final Map<String, CachedFile> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes;
+
+    public ContentCache(Path directory, long maxBytes, Duration evictedFileRetention) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.evictedFileRetention = evictedFileRetention;
+        this.deleter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "content-cache-deleter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < shardLocks.length; i++) {
+            shardLocks[i] = new Object();
+        }
+        try {
+            Files.createDirectories(directory);
+            deleteTemporaryFiles();
+            recoverContent();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized Optional<CachedFile> get(String contentHash) {
+        CachedFile content = entries.get(contentHash);
+        if (content == null || content.getMediaType() == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(content);
+    }
+
+    public CachedFile put(String contentHash, Path file, long length, MediaType mediaType) throws IOException {
+        synchronized (shardLock(contentHash)) {
+            CachedFile existing = entry(contentHash);
+            if (existing != null && existing.getMediaType() != null) {
+                return existing;
+            }
+
+            Path path = path(contentHash);
+            if (existing == null) {
+                Files.createDirectories(path.getParent());
+                Files.move(file, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            CachedFile content = new CachedFile(path, mediaType, length, contentHash);
+            register(content);
+            return content;
+        }
+    }
+
+    public Path createTemporaryFile() throws IOException {
+        return Files.createTempFile(directory, TEMPORARY_PREFIX, TEMPORARY_SUFFIX);
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public void shutdown() {
+        deleter.shutdownNow();
+    }
+
+    private synchronized CachedFile entry(String contentHash) {
+        return entries.get(contentHash);
+    }
+
+    private void register(CachedFile content) {
+        List<CachedFile> evicted = new ArrayList<>();
+        synchronized (this) {
+            CachedFile replaced = entries.put(content.getContentHash(), content);
+            if (replaced != null) {
+                totalBytes -= replaced.getLength();
+            }
+            totalBytes += content.getLength();
+
+            Iterator<CachedFile> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && entries.size() > 1) {
+                CachedFile candidate = eldest.next();
+                eldest.remove();
+                totalBytes -= candidate.getLength();
+                evicted.add(candidate);
+            }
+        }
+        evictions.add(evicted.size());
+        evicted.forEach(this::deleteLater);
+    }
+
+    private void deleteLater(CachedFile evicted) {
+        deleter.schedule(() -> delete(evicted), evictedFileRetention.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void delete(CachedFile evicted) {
+        synchronized (shardLock(evicted.getContentHash())) {
+            if (entry(evicted.getContentHash()) != null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(evicted.getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void deleteTemporaryFiles() throws IOException {
+        try (DirectoryStream<Path> temporaryFiles = Files.newDirectoryStream(
+                directory, TEMPORARY_PREFIX + "*" + TEMPORARY_SUFFIX)) {
+            for (Path file : temporaryFiles) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void recoverContent() throws IOException {
+        Map<Path, BasicFileAttributes> contents = new LinkedHashMap<>();
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path shard : shards) {
+                String shardName = shard.getFileName().toString();
+                if (!SHARD_NAME.matcher(shardName).matches()) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        if (CONTENT_NAME.matcher(name).matches() && name.startsWith(shardName)) {
+                            contents.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+                        }
+                    }
+                }
+            }
+        }
+        contents.entrySet().stream()
+                .sorted(Comparator.comparing(content -> content.getValue().lastModifiedTime()))
+                .forEach(content -> register(new CachedFile(
+                        content.getKey(), null, content.getValue().size(), content.getKey().getFileName().toString())));
+    }
+
+    private Object shardLock(String contentHash) {
+        return shardLocks[Integer.parseInt(contentHash, 0, 2, 16)];
+    }
+
+    private Path path(String contentHash) {
+        return directory.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+}
@@ -0,0 +1,201 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.ProxyProperties;
+import com.fenrir.imagelink.exception.OriginException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class ImageProxyService implements MeterBinder {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RedirectService redirectService;
+    private final ProxyProperties properties;
+    private final OriginGuard originGuard;
+    private final HttpClient httpClient;
+    private final ContentCache contentCache;
+    private final Map<String, Source> sources;
+    private final SingleFlight<String, CachedFile> fetches = new SingleFlight<>();
+    private final LongAdder fetched = new LongAdder();
+    private final LongAdder fetchedBytes = new LongAdder();
+
+    public ImageProxyService(RedirectService redirectService, ProxyProperties properties, OriginGuard originGuard) {
+        this.redirectService = redirectService;
+        this.properties = properties;
+        this.originGuard = originGuard;
+        this.httpClient = originGuard.clientBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        this.contentCache = new ContentCache(
+                properties.getCacheDirectory(),
+                properties.getMaxCacheSize().toBytes(),
+                properties.getEvictedFileRetention());
+        this.sources = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Source> eldest) {
+                return size() > properties.getMaxSources();
+            }
+        };
+    }
+
+    public CachedFile getImage(String code) {
+        String originalUrl = redirectService.resolve(code);
+        String sourceKey = sha256(originalUrl.getBytes(StandardCharsets.UTF_8));
+        return cached(sourceKey).orElseGet(() -> fetches.execute(sourceKey, () ->
+                cached(sourceKey).orElseGet(() -> fetch(sourceKey, originalUrl))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        contentCache.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("imagelink.proxy.cache.size", contentCache, ContentCache::totalBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("imagelink.proxy.cache.entries", contentCache, ContentCache::size)
+                .register(registry);
+        FunctionCounter.builder("imagelink.proxy.cache.gets", contentCache, ContentCache::hits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("imagelink.proxy.cache.gets", contentCache, ContentCache::misses)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("imagelink.proxy.cache.evictions", contentCache, ContentCache::evictions)
+                .register(registry);
+        FunctionCounter.builder("imagelink.proxy.origin.fetches", fetched, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("imagelink.proxy.origin.coalesced", fetches, SingleFlight::coalesced)
+                .description("Requests that waited on a fetch already in flight for the same image")
+                .register(registry);
+        FunctionCounter.builder("imagelink.proxy.origin.bytes", fetchedBytes, LongAdder::sum)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private Optional<CachedFile> cached(String sourceKey) {
+        Source source;
+        synchronized (sources) {
+            source = sources.get(sourceKey);
+        }
+        if (source == null || System.nanoTime() - source.expiresAt() >= 0) {
+            return Optional.empty();
+        }
+        return contentCache.get(source.contentHash());
+    }
+
+    private CachedFile fetch(String sourceKey, String originalUrl) {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .timeout(properties.getFetchTimeout())
+                .GET();
+        HttpResponse<InputStream> response;
+        try {
+            response = originGuard.send(
+                    httpClient, URI.create(originalUrl), request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OriginException("Image fetch was interrupted", e);
+        } catch (IOException e) {
+            throw new OriginException("Image origin could not be reached", e);
+        }
+
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new OriginException("Image origin responded with status " + response.statusCode());
+            }
+            MediaType mediaType = imageMediaType(response);
+            if (response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(0) > properties.getMaxObjectSize().toBytes()) {
+                throw new OriginException("Image exceeds the maximum proxied size of " + properties.getMaxObjectSize());
+            }
+            CachedFile content = store(body, mediaType);
+            synchronized (sources) {
+                sources.put(sourceKey, new Source(
+                        content.getContentHash(), System.nanoTime() + properties.getSourceTimeToLive().toNanos()));
+            }
+            return content;
+        } catch (IOException e) {
+            throw new OriginException("Image could not be proxied from its origin", e);
+        }
+    }
+
+    private CachedFile store(InputStream body, MediaType mediaType) throws IOException {
+        long maxObjectBytes = properties.getMaxObjectSize().toBytes();
+        Path temporary = contentCache.createTemporaryFile();
+        try {
+            MessageDigest digest = sha256();
+            long length = 0;
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    length += read;
+                    if (length > maxObjectBytes) {
+                        throw new OriginException("Image exceeds the maximum proxied size of " + properties.getMaxObjectSize());
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            fetched.increment();
+            fetchedBytes.add(length);
+            return contentCache.put(HexFormat.of().formatHex(digest.digest()), temporary, length, mediaType);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private MediaType imageMediaType(HttpResponse<?> response) {
+        try {
+            MediaType mediaType = response.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+                    .map(MediaType::parseMediaType)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+            if (!"image".equals(mediaType.getType())) {
+                throw new OriginException("Image origin responded with content type " + mediaType);
+            }
+            return mediaType;
+        } catch (InvalidMediaTypeException e) {
+            throw new OriginException("Image origin responded with an invalid content type", e);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Source(String contentHash, long expiresAt) { }
+}
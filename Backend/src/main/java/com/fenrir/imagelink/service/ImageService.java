@@ -1,41 +1,61 @@
 package com.fenrir.imagelink.service;
 
+import com.fenrir.imagelink.config.CacheNames;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
-import com.fenrir.imagelink.dto.mapper.ImageMapper;
 import com.fenrir.imagelink.exception.ResourceNotFoundException;
-import com.fenrir.imagelink.model.Image;
 import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.repository.UpdatedImage;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @AllArgsConstructor
 @Service
+@Timed("imagelink.service")
 public class ImageService {
     private final ImageRepository imageRepository;
-    private final ImageMapper imageMapper;
+    private final CacheInvalidator cacheInvalidator;
+    private final CodeIndex codeIndex;
+    private final UrlValidationWorker urlValidationWorker;
+    private final LookupCoalescer lookupCoalescer;
+    private final ReadYourWrites readYourWrites;
 
+    @Cacheable(cacheNames = CacheNames.IMAGES, key = "#code", sync = true)
     public ImageResponseDto getImage(String code) {
-        return imageMapper.toDto(getImageByCode(code));
+        return readYourWrites.read(code, () ->
+                        lookupCoalescer.image(code, () -> codeIndex.findImage(code, imageRepository::findDtoByCode)))
+                .orElseThrow(() -> imageNotFound(code));
     }
 
+    @Transactional
     public ImageResponseDto updateImage(String code, ImageRequestDto updatedImage) {
-        Image imageToUpdate = getImageByCode(code);
-        imageToUpdate.setOriginalUrl(updatedImage.getOriginalUrl());
-        imageToUpdate.setTitle(updatedImage.getTitle());
-        imageToUpdate.setDescription(updatedImage.getDescription());
-        imageToUpdate = imageRepository.save(imageToUpdate);
-        return imageMapper.toDto(imageToUpdate);
+        UpdatedImage updated = codeIndex.findImage(code, candidate -> imageRepository.updateByCode(
+                        candidate,
+                        updatedImage.getOriginalUrl(),
+                        updatedImage.getTitle(),
+                        updatedImage.getDescription()))
+                .orElseThrow(() -> imageNotFound(code));
+        cacheInvalidator.evictImage(code);
+        cacheInvalidator.evictCollectionImages(updated.getCollectionCode());
+        urlValidationWorker.enqueue(code, updated.getImage().getOriginalUrl());
+        return updated.getImage();
     }
 
+    @Transactional
     public void deleteImage(String code) {
-        imageRepository.delete(getImageByCode(code));
+        String collectionCode = codeIndex.findImage(code, imageRepository::deleteByCode)
+                .orElseThrow(() -> imageNotFound(code));
+        cacheInvalidator.evictImage(code);
+        codeIndex.imagesRemoved(List.of(code));
+        cacheInvalidator.evictCollectionImages(collectionCode);
     }
 
-    private Image getImageByCode(String code) {
-        return imageRepository.findByCode(code)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        String.format("Image was not found for code = %s", code)
-                ));
+    private static ResourceNotFoundException imageNotFound(String code) {
+        return new ResourceNotFoundException(String.format("Image was not found for code = %s", code));
     }
 }
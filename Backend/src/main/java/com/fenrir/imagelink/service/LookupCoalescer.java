@@ -0,0 +1,46 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Component
+public class LookupCoalescer implements MeterBinder {
+    private final SingleFlight<String, Optional<ImageResponseDto>> images = new SingleFlight<>();
+    private final SingleFlight<String, Optional<CollectionResponseDto>> collections = new SingleFlight<>();
+
+    public Optional<ImageResponseDto> image(String code, Supplier<Optional<ImageResponseDto>> lookup) {
+        return images.execute(code, lookup);
+    }
+
+    public Optional<CollectionResponseDto> collection(String code, Supplier<Optional<CollectionResponseDto>> lookup) {
+        return collections.execute(code, lookup);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "image", images);
+        bind(registry, "collection", collections);
+    }
+
+    private static void bind(MeterRegistry registry, String kind, SingleFlight<String, ?> lookups) {
+        FunctionCounter.builder("imagelink.lookup.executed", lookups, SingleFlight::executed)
+                .tag("kind", kind)
+                .description("Lookups by code that queried the database")
+                .register(registry);
+        FunctionCounter.builder("imagelink.lookup.coalesced", lookups, SingleFlight::coalesced)
+                .tag("kind", kind)
+                .description("Lookups by code that waited on a query already in flight for the same code")
+                .register(registry);
+        Gauge.builder("imagelink.lookup.in.flight", lookups, SingleFlight::inFlight)
+                .tag("kind", kind)
+                .register(registry);
+    }
+}
@@ -0,0 +1,223 @@
+package com.fenrir.imagelink.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.StampedLock;
+
+public class OffHeapCodeTable implements CodeMembership {
+    private static final long EMPTY = 0;
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int SLOT_BYTES = Long.BYTES;
+    private static final int MIN_SLOTS = 16;
+    private static final int MAX_SLOTS = Integer.MAX_VALUE / SLOT_BYTES + 1 >>> 1;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public OffHeapCodeTable(long expectedSize) {
+        long perSegment = Math.max(expectedSize / SEGMENTS, 1);
+        int slots = Integer.highestOneBit((int) Math.min(perSegment * 2, MAX_SLOTS) * 2 - 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(slots, MIN_SLOTS));
+        }
+    }
+
+    public boolean contains(long code) {
+        long hash = code * HASH_MULTIPLIER;
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))].contains(code, (int) (hash >>> Integer.SIZE));
+    }
+
+    @Override
+    public boolean mightContain(long code) {
+        return contains(code);
+    }
+
+    @Override
+    public void add(long code) {
+        long hash = code * HASH_MULTIPLIER;
+        segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))].add(code, (int) (hash >>> Integer.SIZE));
+    }
+
+    @Override
+    public void remove(long code) {
+        long hash = code * HASH_MULTIPLIER;
+        segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))].remove(code);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.memoryBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public double expectedFalsePositiveRate() {
+        return 0;
+    }
+
+    private static int hash(long code) {
+        return (int) (code * HASH_MULTIPLIER >>> Integer.SIZE);
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private ByteBuffer slots;
+        private int size;
+        // Every 64-bit value is a valid code, so the code that encodes to EMPTY is tracked outside the slots.
+        private boolean containsEmpty;
+
+        Segment(int capacity) {
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        }
+
+        boolean contains(long code, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            boolean found = code == EMPTY ? containsEmpty : find(slots, code, hash);
+            if (lock.validate(stamp)) {
+                return found;
+            }
+
+            stamp = lock.readLock();
+            try {
+                return code == EMPTY ? containsEmpty : find(slots, code, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void add(long code, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                if (code == EMPTY) {
+                    if (!containsEmpty) {
+                        containsEmpty = true;
+                        size++;
+                    }
+                    return;
+                }
+                int mask = mask(slots);
+                int slot = hash & mask;
+                while (slots.getLong(slot * SLOT_BYTES) != EMPTY) {
+                    if (slots.getLong(slot * SLOT_BYTES) == code) {
+                        return;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                slots.putLong(slot * SLOT_BYTES, code);
+                if (++size > (mask + 1) / 4 * 3) {
+                    grow();
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(long code) {
+            long stamp = lock.writeLock();
+            try {
+                if (code == EMPTY) {
+                    if (containsEmpty) {
+                        containsEmpty = false;
+                        size--;
+                    }
+                    return;
+                }
+                int mask = mask(slots);
+                int hole = hash(code) & mask;
+                while (slots.getLong(hole * SLOT_BYTES) != code) {
+                    if (slots.getLong(hole * SLOT_BYTES) == EMPTY) {
+                        return;
+                    }
+                    hole = (hole + 1) & mask;
+                }
+                size--;
+
+                // Backward-shift deletion keeps every remaining key reachable from its home slot without tombstones.
+                for (int next = (hole + 1) & mask; slots.getLong(next * SLOT_BYTES) != EMPTY; next = (next + 1) & mask) {
+                    long nextCode = slots.getLong(next * SLOT_BYTES);
+                    int home = hash(nextCode) & mask;
+                    if (((next - home) & mask) >= ((next - hole) & mask)) {
+                        slots.putLong(hole * SLOT_BYTES, nextCode);
+                        hole = next;
+                    }
+                }
+                slots.putLong(hole * SLOT_BYTES, EMPTY);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long memoryBytes() {
+            long stamp = lock.readLock();
+            try {
+                return slots.capacity();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void grow() {
+            ByteBuffer old = slots;
+            int capacity = mask(old) + 1;
+            if (capacity >= MAX_SLOTS) {
+                throw new IllegalStateException("Code index segment is full at " + size + " codes");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity * 2 * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            int mask = mask(grown);
+            for (int i = 0; i < capacity; i++) {
+                long code = old.getLong(i * SLOT_BYTES);
+                if (code != EMPTY) {
+                    int slot = hash(code) & mask;
+                    while (grown.getLong(slot * SLOT_BYTES) != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    grown.putLong(slot * SLOT_BYTES, code);
+                }
+            }
+            slots = grown;
+        }
+
+        private static boolean find(ByteBuffer slots, long code, int hash) {
+            int mask = mask(slots);
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long stored = slots.getLong(slot * SLOT_BYTES);
+                if (stored == EMPTY) {
+                    return false;
+                }
+                if (stored == code) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private static int mask(ByteBuffer slots) {
+            return slots.capacity() / SLOT_BYTES - 1;
+        }
+    }
+}
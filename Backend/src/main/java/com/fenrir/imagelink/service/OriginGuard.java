@@ -0,0 +1,207 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.OriginProperties;
+import com.fenrir.imagelink.exception.OriginException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+@Component
+public class OriginGuard {
+    private final Set<String> allowedHosts;
+    private final int maxRedirects;
+    private final Resolver resolver;
+    private final ProxySelector pinnedRoutes = new PinnedRoutes();
+
+    @Autowired
+    public OriginGuard(OriginProperties properties) {
+        this(properties, InetAddress::getAllByName);
+    }
+
+    OriginGuard(OriginProperties properties, Resolver resolver) {
+        this.allowedHosts = properties.getAllowedHosts().stream()
+                .map(host -> host.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxRedirects = properties.getMaxRedirects();
+        this.resolver = resolver;
+    }
+
+    public HttpClient.Builder clientBuilder() {
+        return HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .proxy(pinnedRoutes);
+    }
+
+    public <T> HttpResponse<T> send(HttpClient client, URI uri, HttpRequest.Builder request,
+                                    HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        requirePinnedRoutes(client);
+        URI current = uri;
+        for (int redirects = 0; ; redirects++) {
+            check(current);
+            HttpResponse<T> response = client.send(request.copy().uri(current).build(), skipRedirectBody(handler));
+            if (!isRedirect(response)) {
+                return response;
+            }
+            current = nextHop(current, response, redirects);
+        }
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpClient client, URI uri, HttpRequest.Builder request,
+                                                            HttpResponse.BodyHandler<T> handler) {
+        requirePinnedRoutes(client);
+        return sendAsync(client, client.executor().orElse(Runnable::run), uri, request, handler, 0);
+    }
+
+    public void check(URI uri) {
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            throw new OriginException("Image origin must be an http or https URL");
+        }
+        String host = uri.getHost();
+        if (host == null || host.isEmpty()) {
+            throw new OriginException("Image origin must name a host");
+        }
+        if (!isAllowed(host)) {
+            resolvePublic(host);
+        }
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            return first != 0
+                    && !(first == 100 && (second & 0xc0) == 64)
+                    && !(first == 198 && (second & 0xfe) == 18)
+                    && first < 240;
+        }
+        if (address instanceof Inet6Address ipv6 && ipv6.isIPv4CompatibleAddress()) {
+            try {
+                return isPublic(InetAddress.getByAddress(new byte[] { bytes[12], bytes[13], bytes[14], bytes[15] }));
+            } catch (UnknownHostException e) {
+                return false;
+            }
+        }
+        return (bytes[0] & 0xfe) != 0xfc;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpClient client, Executor executor, URI current,
+                                                             HttpRequest.Builder request,
+                                                             HttpResponse.BodyHandler<T> handler, int redirects) {
+        return CompletableFuture.runAsync(() -> check(current), executor)
+                .thenCompose(checked -> client.sendAsync(request.copy().uri(current).build(), skipRedirectBody(handler)))
+                .thenCompose(response -> isRedirect(response)
+                        ? sendAsync(client, executor, nextHop(current, response, redirects), request, handler, redirects + 1)
+                        : CompletableFuture.completedFuture(response));
+    }
+
+    private void requirePinnedRoutes(HttpClient client) {
+        if (client.proxy().orElse(null) != pinnedRoutes) {
+            throw new IllegalArgumentException("Origin requests must use a client from OriginGuard.clientBuilder()");
+        }
+    }
+
+    private boolean isAllowed(String host) {
+        return allowedHosts.contains(host.toLowerCase(Locale.ROOT));
+    }
+
+    private InetAddress resolvePublic(String host) {
+        InetAddress[] addresses;
+        try {
+            addresses = resolver.resolve(host);
+        } catch (UnknownHostException e) {
+            throw new OriginException("Image origin host could not be resolved", e);
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new OriginException("Image origin must resolve to a public address");
+            }
+        }
+        return addresses[0];
+    }
+
+    private URI nextHop(URI current, HttpResponse<?> response, int redirects) {
+        if (redirects == maxRedirects) {
+            throw new OriginException("Image origin redirected more than " + maxRedirects + " times");
+        }
+        return redirectTarget(current, response.headers().firstValue(HttpHeaders.LOCATION).orElseThrow());
+    }
+
+    private static <T> HttpResponse.BodyHandler<T> skipRedirectBody(HttpResponse.BodyHandler<T> handler) {
+        return responseInfo -> isRedirect(responseInfo) ? HttpResponse.BodySubscribers.replacing(null) : handler.apply(responseInfo);
+    }
+
+    private static boolean isRedirect(HttpResponse.ResponseInfo response) {
+        return isRedirect(response.statusCode(), response.headers());
+    }
+
+    private static boolean isRedirect(HttpResponse<?> response) {
+        return isRedirect(response.statusCode(), response.headers());
+    }
+
+    private static boolean isRedirect(int statusCode, java.net.http.HttpHeaders headers) {
+        return switch (statusCode) {
+            case 301, 302, 303, 307, 308 -> headers.firstValue(HttpHeaders.LOCATION).isPresent();
+            default -> false;
+        };
+    }
+
+    private static URI redirectTarget(URI current, String location) {
+        URI next;
+        try {
+            next = current.resolve(location);
+        } catch (IllegalArgumentException e) {
+            throw new OriginException("Image origin redirected to an invalid URL", e);
+        }
+        if ("https".equalsIgnoreCase(current.getScheme()) && "http".equalsIgnoreCase(next.getScheme())) {
+            throw new OriginException("Image origin redirected from https to http");
+        }
+        return next;
+    }
+
+    interface Resolver {
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    private final class PinnedRoutes extends ProxySelector {
+        @Override
+        public List<Proxy> select(URI uri) {
+            // An https connection that resolves elsewhere fails hostname verification before any request is sent.
+            if (!"http".equalsIgnoreCase(uri.getScheme()) || isAllowed(uri.getHost())) {
+                return List.of(Proxy.NO_PROXY);
+            }
+            // Plain http connects to the address that was just checked, so a second DNS answer is never used.
+            int port = uri.getPort() != -1 ? uri.getPort() : 80;
+            return List.of(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(resolvePublic(uri.getHost()), port)));
+        }
+
+        @Override
+        public void connectFailed(URI uri, SocketAddress address, IOException e) {
+        }
+    }
+}
@@ -1,23 +1,111 @@
 package com.fenrir.imagelink.service;
 
+import com.fenrir.imagelink.config.CodeGenerationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
 @Service
 public class RandomStringService {
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final LongSupplier randomLongs;
+
+    public RandomStringService() {
+        this(new CodeGenerationProperties());
+    }
+
+    @Autowired
+    public RandomStringService(CodeGenerationProperties properties) {
+        this.randomLongs = properties.getRandomness() == CodeGenerationProperties.Randomness.SECURE
+                ? secureRandomLongs()
+                : () -> ThreadLocalRandom.current().nextLong();
+    }
 
     public String generate(int length) {
         if (length < 2) {
             throw new IllegalArgumentException("Length should be greater then 1");
         }
 
-        int n = (length * 3) / 4;
-        byte[] arr = new byte[n];
-        ThreadLocalRandom.current().nextBytes(arr);
-        return Base64.getUrlEncoder()
-                .withoutPadding()
-                .encodeToString(arr);
+        byte[] buffer = new byte[length];
+        int remainingBits = length * 6 - paddingBits(length);
+        long word = 0;
+        int wordBits = 0;
+
+        for (int i = 0; i < length; i++) {
+            int bits = Math.min(6, remainingBits);
+            if (wordBits < bits) {
+                word = randomLongs.getAsLong();
+                wordBits = Long.SIZE;
+            }
+            int index = (int) (word >>> (Long.SIZE - bits)) << (6 - bits);
+            buffer[i] = ALPHABET[index];
+            word <<= bits;
+            wordBits -= bits;
+            remainingBits -= bits;
+        }
+
+        return new String(buffer, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int paddingBits(int length) {
+        return switch (length % 4) {
+            case 2 -> 4;
+            case 3 -> 2;
+            default -> 0;
+        };
+    }
+
+    private static LongSupplier secureRandomLongs() {
+        SecureRandomLongs[] pool = new SecureRandomLongs[Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new SecureRandomLongs();
+        }
+        return () -> pool[ThreadLocalRandom.current().nextInt(pool.length)].nextLong();
+    }
+
+    private static class SecureRandomLongs {
+        private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+        private static final int BLOCK_SIZE = 512;
+
+        private final SecureRandom random;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private int position = BLOCK_SIZE;
+
+        SecureRandomLongs() {
+            try {
+                this.random = SecureRandom.getInstance("DRBG",
+                        DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("DRBG SecureRandom is not available", e);
+            }
+        }
+
+        long nextLong() {
+            lock.lock();
+            try {
+                if (position == BLOCK_SIZE) {
+                    random.nextBytes(block);
+                    position = 0;
+                }
+                long value = (long) LONGS.get(block, position);
+                position += Long.BYTES;
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 }
@@ -0,0 +1,41 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapper;
+import com.fenrir.imagelink.dto.mapper.ImageMapper;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.repository.ReactiveReadRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@AllArgsConstructor
+@Service
+public class ReactiveReadService {
+    private final ReactiveReadRepository reactiveReadRepository;
+    private final ImageMapper imageMapper;
+    private final CollectionMapper collectionMapper;
+
+    public Mono<ImageResponseDto> getImage(String code) {
+        return reactiveReadRepository.findImageByCode(code)
+                .map(imageMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                        String.format("Image was not found for code = %s", code)
+                )));
+    }
+
+    public Mono<CollectionResponseDto> getCollection(String code) {
+        return reactiveReadRepository.findCollectionByCode(code)
+                .map(collectionMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                        String.format("Collection was not found for code = %s", code)
+                )));
+    }
+
+    public Flux<ImageResponseDto> getAllImagesByCollectionCode(String collectionCode) {
+        return reactiveReadRepository.findImagesByCollectionCode(collectionCode)
+                .map(imageMapper::toDto);
+    }
+}
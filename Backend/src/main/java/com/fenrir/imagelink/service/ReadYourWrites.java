@@ -0,0 +1,62 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.ReplicaProperties;
+import com.fenrir.imagelink.config.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+@Component
+public class ReadYourWrites {
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWrites(ReplicaProperties properties) {
+        this.recentWrites = properties.isEnabled() && !properties.getReadYourWritesWindow().isZero()
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(properties.getReadYourWritesWindow())
+                        .maximumSize(properties.getReadYourWritesMaximumSize())
+                        .build()
+                : null;
+    }
+
+    public void written(String code) {
+        if (recentWrites == null) {
+            return;
+        }
+        recentWrites.put(code, Boolean.TRUE);
+        afterCommit(() -> recentWrites.put(code, Boolean.TRUE));
+    }
+
+    public void written(Iterable<String> codes) {
+        codes.forEach(this::written);
+    }
+
+    public <T> T read(String code, Supplier<T> lookup) {
+        if (recentWrites != null && recentWrites.getIfPresent(code) != null) {
+            return ReplicaRoutingDataSource.onPrimary(lookup);
+        }
+        return lookup.get();
+    }
+
+    public void read(String code, Runnable lookup) {
+        read(code, () -> {
+            lookup.run();
+            return null;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
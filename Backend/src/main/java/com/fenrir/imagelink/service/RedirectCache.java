@@ -0,0 +1,114 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.CachingProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class RedirectCache implements MeterBinder {
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLongArray evictedAt;
+    private final AtomicLong evictions = new AtomicLong();
+    private final int mask;
+    private final Duration timeToLive;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public RedirectCache(CachingProperties properties) {
+        this(properties.getMaximumSize(), properties.getTimeToLive());
+    }
+
+    public RedirectCache(long maximumSize, Duration timeToLive) {
+        int capacity = Integer.highestOneBit((int) Math.min(Math.max(maximumSize, 2), 1 << 29) * 2 - 1);
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.evictedAt = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.timeToLive = timeToLive;
+    }
+
+    public String get(long code) {
+        Entry entry = entries.get(slot(code));
+        if (entry == null || entry.code() != code || System.nanoTime() - entry.deadline() >= 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.originalUrl();
+    }
+
+    public long stamp() {
+        return evictions.get();
+    }
+
+    public void put(long code, String originalUrl, LocalDateTime expiresAt, long stamp) {
+        Duration untilExpiry = Duration.between(LocalDateTime.now(), expiresAt);
+        if (untilExpiry.isNegative() || untilExpiry.isZero()) {
+            return;
+        }
+        Duration lifetime = untilExpiry.compareTo(timeToLive) < 0 ? untilExpiry : timeToLive;
+        int slot = slot(code);
+        Entry entry = new Entry(code, originalUrl, System.nanoTime() + lifetime.toNanos());
+        entries.set(slot, entry);
+        // A slot evicted after the stamp was taken may hold a row loaded before the change that evicted it.
+        if (evictedAt.get(slot) > stamp) {
+            entries.compareAndSet(slot, entry, null);
+        }
+    }
+
+    public void evict(String code) {
+        if (!Codes.isEncodable(code)) {
+            return;
+        }
+        long encoded = Codes.encode(code);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(encoded);
+                }
+            });
+        } else {
+            evict(encoded);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("imagelink.redirect.cache.gets", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("imagelink.redirect.cache.gets", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private void evict(long code) {
+        int slot = slot(code);
+        evictedAt.set(slot, evictions.incrementAndGet());
+        Entry entry = entries.get(slot);
+        if (entry != null && entry.code() == code) {
+            entries.compareAndSet(slot, entry, null);
+        }
+    }
+
+    private int slot(long code) {
+        return (int) ((code * HASH_MULTIPLIER) >>> 32) & mask;
+    }
+
+    private record Entry(long code, String originalUrl, long deadline) { }
+}
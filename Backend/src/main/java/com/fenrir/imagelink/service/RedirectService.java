@@ -0,0 +1,38 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.dto.ImageRedirectDto;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.repository.ImageRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@AllArgsConstructor
+@Service
+public class RedirectService {
+    private final ImageRepository imageRepository;
+    private final RedirectCache redirectCache;
+    private final CodeIndex codeIndex;
+    private final ReadYourWrites readYourWrites;
+
+    public String resolve(String code) {
+        boolean cacheable = Codes.isEncodable(code);
+        long encoded = cacheable ? Codes.encode(code) : 0;
+        if (cacheable) {
+            String originalUrl = redirectCache.get(encoded);
+            if (originalUrl != null) {
+                return originalUrl;
+            }
+        }
+
+        long stamp = redirectCache.stamp();
+        ImageRedirectDto redirect = readYourWrites.read(code, () ->
+                        codeIndex.findImage(code, imageRepository::findRedirectByCode))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Image was not found for code = %s", code)
+                ));
+        if (cacheable) {
+            redirectCache.put(encoded, redirect.getOriginalUrl(), redirect.getExpiresAt(), stamp);
+        }
+        return redirect.getOriginalUrl();
+    }
+}
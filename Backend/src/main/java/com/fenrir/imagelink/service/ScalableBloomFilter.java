@@ -0,0 +1,152 @@
+package com.fenrir.imagelink.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ScalableBloomFilter implements CodeMembership {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+    private static final long MIN_CAPACITY = 1024;
+
+    private volatile Layer[] layers;
+
+    public ScalableBloomFilter(long expectedSize, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        // Layer i targets rate * (1 - r) * r^i, so the compounded rate of all layers stays below the requested one.
+        this.layers = new Layer[] {
+                new Layer(Math.max(expectedSize, MIN_CAPACITY), falsePositiveRate * (1 - TIGHTENING_RATIO))
+        };
+    }
+
+    @Override
+    public boolean mightContain(long code) {
+        long hash = mix(code);
+        for (Layer layer : layers) {
+            if (layer.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void add(long code) {
+        long hash = mix(code);
+        Layer[] current = layers;
+        Layer last = current[current.length - 1];
+        if (last.isFull()) {
+            last = grow(current);
+        }
+        last.add(hash);
+    }
+
+    @Override
+    public void remove(long code) {
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Layer layer : layers) {
+            size += layer.count.get();
+        }
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Layer layer : layers) {
+            bytes += (long) layer.words.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    @Override
+    public double expectedFalsePositiveRate() {
+        double allNegative = 1;
+        for (Layer layer : layers) {
+            allNegative *= 1 - layer.expectedFalsePositiveRate();
+        }
+        return 1 - allNegative;
+    }
+
+    public int layerCount() {
+        return layers.length;
+    }
+
+    private synchronized Layer grow(Layer[] seen) {
+        Layer[] current = layers;
+        Layer last = current[current.length - 1];
+        if (current == seen) {
+            last = new Layer(last.capacity * GROWTH_FACTOR, last.falsePositiveRate * TIGHTENING_RATIO);
+            Layer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = last;
+            layers = grown;
+        }
+        return last;
+    }
+
+    private static long mix(long code) {
+        long hash = (code ^ (code >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Layer {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bits;
+        private final int hashes;
+        private final long[] words;
+        private final AtomicLong count = new AtomicLong();
+
+        Layer(long capacity, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            this.words = new long[Math.toIntExact((optimalBits + Long.SIZE - 1) / Long.SIZE)];
+            this.bits = (long) words.length * Long.SIZE;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * ln2));
+        }
+
+        boolean isFull() {
+            return count.get() >= capacity;
+        }
+
+        boolean mightContain(long hash) {
+            long step = Long.rotateLeft(hash, 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = index(hash + i * step);
+                if (((long) WORDS.getAcquire(words, (int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(long hash) {
+            long step = Long.rotateLeft(hash, 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = index(hash + i * step);
+                WORDS.getAndBitwiseOr(words, (int) (bit >>> 6), 1L << bit);
+            }
+            count.incrementAndGet();
+        }
+
+        private long index(long hash) {
+            // Maps the hash onto [0, bits) by the high half of the unsigned 128-bit product, avoiding a division.
+            return Math.multiplyHigh(hash, bits) + (hash >> 63 & bits);
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashes * count.get() / bits), hashes);
+        }
+    }
+}
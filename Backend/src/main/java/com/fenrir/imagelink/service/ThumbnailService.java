@@ -0,0 +1,347 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.ThumbnailProperties;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.exception.ThumbnailException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class ThumbnailService implements MeterBinder {
+    private static final String SOURCES_DIRECTORY = "sources";
+
+    private final RedirectService redirectService;
+    private final ThumbnailProperties properties;
+    private final OriginGuard originGuard;
+    private final HttpClient httpClient;
+    private final ThreadPoolExecutor workers;
+    private final SingleFlight<String, String> generations = new SingleFlight<>();
+    private final LongAdder fetched = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+
+    public ThumbnailService(RedirectService redirectService, ThumbnailProperties properties, OriginGuard originGuard) {
+        this.redirectService = redirectService;
+        this.properties = properties;
+        this.originGuard = originGuard;
+        this.httpClient = originGuard.clientBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                properties.getWorkers(),
+                properties.getWorkers(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                task -> {
+                    Thread thread = new Thread(task, "thumbnail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        try {
+            Files.createDirectories(properties.getCacheDirectory().resolve(SOURCES_DIRECTORY));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public CachedFile getThumbnail(String code, int size) {
+        if (!properties.getSizes().contains(size)) {
+            throw new ResourceNotFoundException(String.format("Thumbnail size %d is not available", size));
+        }
+
+        String originalUrl = redirectService.resolve(code);
+        String sourceKey = sha256(originalUrl.getBytes(StandardCharsets.UTF_8));
+        return cached(sourceKey, size)
+                .or(() -> {
+                    awaitGeneration(sourceKey, originalUrl);
+                    return cached(sourceKey, size);
+                })
+                .orElseThrow(() -> new ThumbnailException("Thumbnail was not generated for code = " + code));
+    }
+
+    public int defaultSize() {
+        return properties.getDefaultSize();
+    }
+
+    @Scheduled(fixedDelayString = "${imagelink.thumbnail.source-sweep-interval:PT10M}")
+    public void deleteExpiredSources() {
+        try (DirectoryStream<Path> sources = Files.newDirectoryStream(
+                properties.getCacheDirectory().resolve(SOURCES_DIRECTORY))) {
+            for (Path source : sources) {
+                deleteIfExpired(source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("imagelink.thumbnail.queued", workers, executor -> executor.getQueue().size())
+                .register(registry);
+        Gauge.builder("imagelink.thumbnail.active", workers, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+        FunctionCounter.builder("imagelink.thumbnail.sources.fetched", fetched, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("imagelink.thumbnail.sources.generated", generated, LongAdder::sum)
+                .description("Distinct source images decoded and scaled")
+                .register(registry);
+    }
+
+    private Optional<CachedFile> cached(String sourceKey, int size) {
+        try {
+            Path source = sourcePath(sourceKey);
+            if (isExpired(source)) {
+                return Optional.empty();
+            }
+            String contentName = Files.readString(source, StandardCharsets.US_ASCII);
+            int extension = contentName.indexOf('.');
+            String contentHash = contentName.substring(0, extension);
+            String format = contentName.substring(extension + 1);
+            Path path = thumbnailPath(contentHash, size, format);
+            return Optional.of(new CachedFile(path, mediaType(format), Files.size(path), contentHash));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void awaitGeneration(String sourceKey, String originalUrl) {
+        generations.execute(sourceKey, () -> {
+            Future<String> generation = workers.submit(() -> generate(sourceKey, originalUrl));
+            try {
+                return generation.get(properties.getGenerationTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new ThumbnailException("Thumbnail generation failed", e.getCause());
+            } catch (TimeoutException e) {
+                generation.cancel(true);
+                throw new ThumbnailException("Thumbnail generation timed out", e);
+            } catch (InterruptedException e) {
+                generation.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new ThumbnailException("Thumbnail generation was interrupted", e);
+            }
+        });
+    }
+
+    private String generate(String sourceKey, String originalUrl) throws IOException {
+        byte[] source = fetch(originalUrl);
+        String contentHash = sha256(source);
+
+        String contentName = existingContentName(contentHash)
+                .orElseGet(() -> writeThumbnails(contentHash, source));
+        writeAtomically(sourcePath(sourceKey), contentName.getBytes(StandardCharsets.US_ASCII));
+        return contentName;
+    }
+
+    private byte[] fetch(String originalUrl) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .timeout(properties.getFetchTimeout())
+                .GET();
+        HttpResponse<InputStream> response;
+        try {
+            response = originGuard.send(
+                    httpClient, URI.create(originalUrl), request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThumbnailException("Image fetch was interrupted", e);
+        } catch (IOException e) {
+            throw new ThumbnailException("Image origin could not be reached", e);
+        }
+
+        long maxSourceBytes = properties.getMaxSourceSize().toBytes();
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new ThumbnailException("Image origin responded with status " + response.statusCode());
+            }
+            byte[] source = body.readNBytes((int) Math.min(maxSourceBytes + 1, Integer.MAX_VALUE - 8));
+            if (source.length > maxSourceBytes) {
+                throw new ThumbnailException("Image exceeds the maximum source size of " + properties.getMaxSourceSize());
+            }
+            fetched.increment();
+            return source;
+        }
+    }
+
+    private Optional<String> existingContentName(String contentHash) {
+        for (String format : new String[] { "jpg", "png" }) {
+            boolean complete = properties.getSizes().stream()
+                    .allMatch(size -> Files.exists(thumbnailPath(contentHash, size, format)));
+            if (complete) {
+                return Optional.of(contentHash + "." + format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private String writeThumbnails(String contentHash, byte[] source) {
+        try {
+            BufferedImage image = decode(source);
+            boolean alpha = image.getColorModel().hasAlpha();
+            String format = alpha ? "png" : "jpg";
+            for (int size : properties.getSizes()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new ThumbnailException("Thumbnail generation was cancelled");
+                }
+                Path path = thumbnailPath(contentHash, size, format);
+                Files.createDirectories(path.getParent());
+                Path temporary = Files.createTempFile(path.getParent(), contentHash, ".tmp");
+                try {
+                    ImageIO.write(scale(image, size, alpha), format, temporary.toFile());
+                    Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+            }
+            generated.increment();
+            return contentHash + "." + format;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BufferedImage decode(byte[] source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(source))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new ThumbnailException("Image origin did not return a supported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > properties.getMaxSourcePixels()) {
+                    throw new ThumbnailException(String.format(
+                            "Image exceeds the maximum source size of %d pixels", properties.getMaxSourcePixels()));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void writeAtomically(Path path, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void deleteIfExpired(Path source) throws IOException {
+        try {
+            if (isExpired(source)) {
+                Files.deleteIfExists(source);
+            }
+        } catch (NoSuchFileException e) {
+            // Replaced or removed while the sweep was listing the directory.
+        }
+    }
+
+    private boolean isExpired(Path source) throws IOException {
+        Instant writtenAt = Files.getLastModifiedTime(source).toInstant();
+        return writtenAt.plus(properties.getSourceTimeToLive()).isBefore(Instant.now());
+    }
+
+    private Path sourcePath(String sourceKey) {
+        return properties.getCacheDirectory().resolve(SOURCES_DIRECTORY).resolve(sourceKey);
+    }
+
+    private Path thumbnailPath(String contentHash, int size, String format) {
+        return properties.getCacheDirectory()
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash + "-" + size + "." + format);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(height, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(
+                    stepWidth, stepHeight, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    private static MediaType mediaType(String format) {
+        return "png".equals(format) ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
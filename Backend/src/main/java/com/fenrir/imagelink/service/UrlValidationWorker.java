@@ -0,0 +1,335 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.UrlValidationProperties;
+import com.fenrir.imagelink.model.UrlStatus;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.repository.UrlMetadata;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class UrlValidationWorker implements MeterBinder {
+    private static final int MAX_CONTENT_TYPE_LENGTH = 255;
+    private static final int HOST_CLEANUP_THRESHOLD = 10_000;
+
+    private final UrlValidationProperties properties;
+    private final ImageRepository imageRepository;
+    private final OriginGuard originGuard;
+    private final HttpClient httpClient;
+    private final BlockingQueue<Probe> queue = new LinkedBlockingQueue<>();
+    private final Semaphore backlog;
+    private final Map<String, AtomicLong> nextSlotByHost = new ConcurrentHashMap<>();
+    private final Semaphore inFlight;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService clientExecutor;
+    private final ExecutorService recorder;
+    private final Map<UrlStatus, LongAdder> results = new EnumMap<>(UrlStatus.class);
+    private final LongAdder dropped = new LongAdder();
+    private volatile Thread dispatcher;
+
+    public UrlValidationWorker(UrlValidationProperties properties, ImageRepository imageRepository,
+                               OriginGuard originGuard) {
+        this.properties = properties;
+        this.imageRepository = imageRepository;
+        this.originGuard = originGuard;
+        AtomicInteger clientThreadCount = new AtomicInteger();
+        this.clientExecutor = Executors.newCachedThreadPool(
+                task -> daemon(task, "url-validation-client-" + clientThreadCount.incrementAndGet()));
+        this.httpClient = originGuard.clientBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .executor(clientExecutor)
+                .build();
+        this.backlog = new Semaphore(properties.getQueueCapacity());
+        this.inFlight = new Semaphore(properties.getMaxConcurrency());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "url-validation-scheduler"));
+        this.recorder = Executors.newSingleThreadExecutor(task -> daemon(task, "url-validation-recorder"));
+        for (UrlStatus status : UrlStatus.values()) {
+            results.put(status, new LongAdder());
+        }
+    }
+
+    public void enqueue(String code, String originalUrl) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        afterCommit(() -> {
+            if (backlog.tryAcquire()) {
+                queue.add(new Probe(code, originalUrl));
+            } else {
+                dropped.increment();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.isEnabled() || dispatcher != null) {
+            return;
+        }
+        dispatcher = daemon(this::dispatch, "url-validation-dispatcher");
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread running = dispatcher;
+        if (running != null) {
+            running.interrupt();
+        }
+        scheduler.shutdownNow();
+        clientExecutor.shutdownNow();
+        recorder.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Gauge.builder("imagelink.url.validation.queued", backlog,
+                        semaphore -> properties.getQueueCapacity() - semaphore.availablePermits())
+                .register(registry);
+        Gauge.builder("imagelink.url.validation.in.flight", inFlight,
+                        semaphore -> properties.getMaxConcurrency() - semaphore.availablePermits())
+                .register(registry);
+        FunctionCounter.builder("imagelink.url.validation.dropped", dropped, LongAdder::sum)
+                .description("Probes discarded because the queue was full")
+                .register(registry);
+        results.forEach((status, count) ->
+                FunctionCounter.builder("imagelink.url.validation.results", count, LongAdder::sum)
+                        .tag("status", status.name().toLowerCase())
+                        .register(registry));
+    }
+
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Probe probe = queue.take();
+                scheduler.schedule(() -> probe(probe), reserveSlot(host(probe.originalUrl())), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long reserveSlot(String host) {
+        long now = System.nanoTime();
+        if (nextSlotByHost.size() > HOST_CLEANUP_THRESHOLD) {
+            nextSlotByHost.values().removeIf(slot -> slot.get() - now < 0);
+        }
+        long interval = properties.getPerHostInterval().toNanos();
+        AtomicLong nextSlot = nextSlotByHost.computeIfAbsent(host, key -> new AtomicLong(now));
+        long slot = nextSlot.getAndAccumulate(now, (next, current) -> Math.max(next - current, 0) + current + interval);
+        return Math.max(slot - now, 0);
+    }
+
+    private void probe(Probe probe) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        backlog.release();
+        send(probe).whenComplete((metadata, failure) -> {
+            inFlight.release();
+            UrlMetadata result = failure == null ? metadata : unreachable();
+            recorder.execute(() -> record(probe, result));
+        });
+    }
+
+    private CompletableFuture<UrlMetadata> send(Probe probe) {
+        int limit = (int) properties.getMetadataBytes().toBytes();
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .timeout(properties.getRequestTimeout())
+                .header(HttpHeaders.RANGE, "bytes=0-" + (limit - 1))
+                .GET();
+        try {
+            return originGuard.sendAsync(
+                    httpClient, URI.create(probe.originalUrl()), request, responseInfo -> new PrefixSubscriber(limit))
+                    .thenApply(UrlValidationWorker::metadata);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void record(Probe probe, UrlMetadata metadata) {
+        try {
+            if (imageRepository.recordUrlMetadata(probe.code(), probe.originalUrl(), metadata)) {
+                results.get(metadata.getStatus()).increment();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not record URL metadata for image {}", probe.code(), e);
+        }
+    }
+
+    private static UrlMetadata metadata(HttpResponse<byte[]> response) {
+        boolean reachable = response.statusCode() >= 200 && response.statusCode() < 300;
+        Dimension dimension = reachable ? dimension(response.body()) : null;
+        return new UrlMetadata(
+                reachable ? UrlStatus.REACHABLE : UrlStatus.BROKEN,
+                response.statusCode(),
+                response.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+                        .map(type -> type.length() > MAX_CONTENT_TYPE_LENGTH ? type.substring(0, MAX_CONTENT_TYPE_LENGTH) : type)
+                        .orElse(null),
+                contentLength(response),
+                dimension != null ? dimension.width : null,
+                dimension != null ? dimension.height : null,
+                LocalDateTime.now()
+        );
+    }
+
+    private static UrlMetadata unreachable() {
+        return new UrlMetadata(UrlStatus.UNREACHABLE, null, null, null, null, null, LocalDateTime.now());
+    }
+
+    private static Long contentLength(HttpResponse<?> response) {
+        if (response.statusCode() == 206) {
+            return response.headers().firstValue(HttpHeaders.CONTENT_RANGE)
+                    .map(range -> range.substring(range.lastIndexOf('/') + 1))
+                    .filter(total -> !total.isEmpty() && total.chars().allMatch(Character::isDigit))
+                    .map(Long::valueOf)
+                    .orElse(null);
+        }
+        return response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).stream().boxed().findFirst().orElse(null);
+    }
+
+    private static Dimension dimension(byte[] prefix) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(prefix))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String host(String originalUrl) {
+        try {
+            String host = URI.create(originalUrl).getHost();
+            return host != null ? host.toLowerCase() : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Probe(String code, String originalUrl) { }
+
+    private static final class PrefixSubscriber implements HttpResponse.BodySubscriber<byte[]> {
+        private final int limit;
+        private final ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        PrefixSubscriber(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                int length = Math.min(buffer.remaining(), limit - prefix.size());
+                byte[] chunk = new byte[length];
+                buffer.get(chunk);
+                prefix.writeBytes(chunk);
+            }
+            if (prefix.size() >= limit) {
+                body.complete(prefix.toByteArray());
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(prefix.toByteArray());
+        }
+    }
+}
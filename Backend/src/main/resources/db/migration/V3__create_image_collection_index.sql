@@ -0,0 +1,3 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_image_collection_id
+    ON image (collection_id, id)
+    INCLUDE (code);
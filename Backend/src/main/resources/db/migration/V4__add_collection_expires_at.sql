@@ -0,0 +1,7 @@
+ALTER TABLE collection ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+
+UPDATE collection SET expires_at = created_at + life_period * INTERVAL '1 millisecond';
+
+ALTER TABLE collection ALTER COLUMN expires_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_collection_expires_at ON collection (expires_at);
@@ -0,0 +1,3 @@
+ALTER SEQUENCE collection_id_seq INCREMENT BY 50;
+
+ALTER SEQUENCE image_id_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+ALTER TABLE image
+    ADD COLUMN IF NOT EXISTS url_status         VARCHAR(16),
+    ADD COLUMN IF NOT EXISTS url_http_status    INT,
+    ADD COLUMN IF NOT EXISTS url_content_type   VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS url_content_length BIGINT,
+    ADD COLUMN IF NOT EXISTS url_image_width    INT,
+    ADD COLUMN IF NOT EXISTS url_image_height   INT,
+    ADD COLUMN IF NOT EXISTS url_checked_at     TIMESTAMP;
@@ -0,0 +1,135 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.config.CachingProperties;
+import com.fenrir.imagelink.config.CodeGenerationProperties;
+import com.fenrir.imagelink.config.CodePoolProperties;
+import com.fenrir.imagelink.dto.CollectionRequestDto;
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapperImpl;
+import com.fenrir.imagelink.dto.mapper.ImageMapperImpl;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.service.CacheInvalidator;
+import com.fenrir.imagelink.service.CodeGenerationMetrics;
+import com.fenrir.imagelink.service.CodePool;
+import com.fenrir.imagelink.service.CollectionService;
+import com.fenrir.imagelink.service.LookupCoalescer;
+import com.fenrir.imagelink.service.RandomStringService;
+import com.fenrir.imagelink.service.RedirectCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import javax.validation.Validation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares saving a collection with a code taken from a pre-filled {@link CodePool},
+ * with the generate-and-check retry loop and with the optimistic insert strategy.
+ * Repository calls are stubbed with a configurable simulated database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = CodeGenerationBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = CodeGenerationBenchmark.BATCH_SIZE)
+@Fork(1)
+public class CodeGenerationBenchmark {
+    static final int BATCH_SIZE = 2_000;
+
+    @Param({ "0", "100" })
+    private long roundTripMicros;
+
+    private RandomStringService randomStringService;
+    private CollectionRepository collectionRepository;
+    private ImageRepository imageRepository;
+
+    private CodePool codePool;
+    private CollectionService pooledService;
+    private CollectionService retryLoopService;
+    private CollectionService optimisticService;
+    private CollectionRequestDto request;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        long roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        collectionRepository = RepositoryStubs.collectionRepository(roundTripNanos, null);
+        imageRepository = RepositoryStubs.imageRepository(roundTripNanos, null);
+        randomStringService = new RandomStringService();
+
+        CodePoolProperties poolProperties = new CodePoolProperties();
+        poolProperties.setCapacity(BATCH_SIZE);
+        poolProperties.setBatchSize(500);
+        codePool = new CodePool(
+                randomStringService, collectionRepository, imageRepository, poolProperties, new CodeGenerationMetrics());
+
+        CodePoolProperties disabledPoolProperties = new CodePoolProperties();
+        disabledPoolProperties.setEnabled(false);
+        CodePool emptyPool = new CodePool(
+                randomStringService, collectionRepository, imageRepository, disabledPoolProperties, new CodeGenerationMetrics());
+
+        CodeGenerationProperties preCheck = new CodeGenerationProperties();
+        CodeGenerationProperties optimistic = new CodeGenerationProperties();
+        optimistic.setStrategy(CodeGenerationProperties.Strategy.OPTIMISTIC);
+
+        pooledService = collectionService(codePool, preCheck);
+        retryLoopService = collectionService(emptyPool, preCheck);
+        optimisticService = collectionService(emptyPool, optimistic);
+
+        request = CollectionRequestDto.builder()
+                .lifePeriod(86_400_000L)
+                .title("benchmark")
+                .description("benchmark collection")
+                .build();
+    }
+
+    private CollectionService collectionService(CodePool pool, CodeGenerationProperties properties) {
+        return new CollectionService(
+                randomStringService,
+                pool,
+                properties,
+                collectionRepository,
+                imageRepository,
+                new CollectionMapperImpl(),
+                new ImageMapperImpl(),
+                new CacheInvalidator(new NoOpCacheManager(), new RedirectCache(new CachingProperties()),
+                        Fixtures.disabledReadYourWrites()),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                Fixtures.disabledCodeIndex(),
+                new CodeGenerationMetrics(),
+                Fixtures.disabledUrlValidation(),
+                new LookupCoalescer(),
+                Fixtures.disabledReadYourWrites()
+        );
+    }
+
+    @Setup(Level.Iteration)
+    public void refillPool() {
+        codePool.refill();
+    }
+
+    @Benchmark
+    public CollectionResponseDto pooledCode() {
+        return pooledService.saveCollection(request);
+    }
+
+    @Benchmark
+    public CollectionResponseDto retryLoop() {
+        return retryLoopService.saveCollection(request);
+    }
+
+    @Benchmark
+    public CollectionResponseDto optimisticInsert() {
+        return optimisticService.saveCollection(request);
+    }
+}
@@ -0,0 +1,102 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.service.Codes;
+import com.fenrir.imagelink.service.OffHeapCodeTable;
+import com.fenrir.imagelink.service.RandomStringService;
+import com.fenrir.imagelink.service.ScalableBloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Existence checks against an index of {@code size} image codes. {@code offHeap*} encode the code to its
+ * 64-bit form and probe {@link OffHeapCodeTable}, as {@code CodeIndex} does by default; {@code bloom*} probe
+ * the {@link ScalableBloomFilter} behind {@code imagelink.code-index.type=bloom} at a 1% target rate;
+ * {@code heapSet*} are the on-heap alternative holding the code strings. Hits cycle through copies of codes spread over the
+ * whole table, so the set compares against its stored key the way it would for a code parsed from a
+ * request; misses cycle through codes that were never stored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class CodeIndexBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({ "1000000" })
+    private int size;
+
+    private OffHeapCodeTable offHeapTable;
+    private ScalableBloomFilter bloomFilter;
+    private Set<String> heapSet;
+    private String[] storedCodes;
+    private String[] missingCodes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        RandomStringService randomStringService = new RandomStringService();
+        offHeapTable = new OffHeapCodeTable(size);
+        bloomFilter = new ScalableBloomFilter(size, 0.01);
+        heapSet = ConcurrentHashMap.newKeySet(size * 2);
+        storedCodes = new String[PROBES];
+        int stride = Math.max(size / PROBES, 1);
+        for (int i = 0; i < size; i++) {
+            String code = randomStringService.generate(Codes.LENGTH);
+            offHeapTable.add(Codes.encode(code));
+            bloomFilter.add(Codes.encode(code));
+            heapSet.add(code);
+            if (i % stride == 0 && i / stride < PROBES) {
+                storedCodes[i / stride] = new String(code.toCharArray());
+            }
+        }
+        missingCodes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            missingCodes[i] = randomStringService.generate(Codes.LENGTH);
+        }
+    }
+
+    @Benchmark
+    public boolean offHeapHit() {
+        return offHeapTable.contains(Codes.encode(storedCodes[next++ & (PROBES - 1)]));
+    }
+
+    @Benchmark
+    public boolean offHeapMiss() {
+        return offHeapTable.contains(Codes.encode(missingCodes[next++ & (PROBES - 1)]));
+    }
+
+    @Benchmark
+    public boolean bloomHit() {
+        return bloomFilter.mightContain(Codes.encode(storedCodes[next++ & (PROBES - 1)]));
+    }
+
+    @Benchmark
+    public boolean bloomMiss() {
+        return bloomFilter.mightContain(Codes.encode(missingCodes[next++ & (PROBES - 1)]));
+    }
+
+    @Benchmark
+    public boolean heapSetHit() {
+        return heapSet.contains(storedCodes[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean heapSetMiss() {
+        return heapSet.contains(missingCodes[next++ & (PROBES - 1)]);
+    }
+}
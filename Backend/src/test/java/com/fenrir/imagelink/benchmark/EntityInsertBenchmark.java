@@ -0,0 +1,133 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.ImageLinkApplication;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.service.RandomStringService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures inserting a page of images in one transaction against a real PostgreSQL database.
+ * {@code identityInserts} reproduces what {@code GenerationType.IDENTITY} forced on Hibernate: one
+ * {@code INSERT ... RETURNING id} round trip per row. {@code hibernateSaveAll} persists the same rows
+ * through JPA with pooled-lo sequence ids, with JDBC batching off ({@code batchSize = 1}) or on.
+ * Point {@code SPRING_DATASOURCE_URL} (and credentials) at a migrated, disposable database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityInsertBenchmark {
+    private static final String IDENTITY_INSERT_SQL = """
+            INSERT INTO image (code, original_url, title, description, created_at, updated_at, collection_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            RETURNING id
+            """;
+
+    @Param({ "1", "50" })
+    private int batchSize;
+
+    @Param({ "100" })
+    private int images;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private ImageRepository imageRepository;
+    private CollectionRepository collectionRepository;
+    private RandomStringService randomStringService;
+    private Collection collection;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ImageLinkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "imagelink.code-pool.enabled=false",
+                        "imagelink.expiry.enabled=false")
+                .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        imageRepository = context.getBean(ImageRepository.class);
+        collectionRepository = context.getBean(CollectionRepository.class);
+        randomStringService = context.getBean(RandomStringService.class);
+
+        collection = collectionRepository.save(Collection.builder()
+                .code(randomStringService.generate(11))
+                .lifePeriod(86_400_000L)
+                .title("benchmark")
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        collectionRepository.deleteById(collection.getId());
+        context.close();
+    }
+
+    @Benchmark
+    public List<Image> hibernateSaveAll() {
+        return transactionTemplate.execute(status -> imageRepository.saveAll(newImages()));
+    }
+
+    @Benchmark
+    public List<Long> identityInserts() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = new ArrayList<>(images);
+            for (Image image : newImages()) {
+                ids.add(jdbcTemplate.queryForObject(
+                        IDENTITY_INSERT_SQL,
+                        Long.class,
+                        image.getCode(),
+                        image.getOriginalUrl(),
+                        image.getTitle(),
+                        image.getDescription(),
+                        now,
+                        now,
+                        collection.getId()));
+            }
+            return ids;
+        });
+    }
+
+    private List<Image> newImages() {
+        List<Image> result = new ArrayList<>(images);
+        for (int i = 0; i < images; i++) {
+            result.add(Image.builder()
+                    .code(randomStringService.generate(11))
+                    .originalUrl("http://localhost/image" + i + ".png")
+                    .title("image " + i)
+                    .collection(collection)
+                    .build());
+        }
+        return result;
+    }
+}
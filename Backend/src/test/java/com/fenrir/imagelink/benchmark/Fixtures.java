@@ -0,0 +1,80 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.config.CodeIndexProperties;
+import com.fenrir.imagelink.config.OriginProperties;
+import com.fenrir.imagelink.config.ReplicaProperties;
+import com.fenrir.imagelink.config.UrlValidationProperties;
+import com.fenrir.imagelink.dto.ImageRequestDto;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.service.CodeIndex;
+import com.fenrir.imagelink.service.OriginGuard;
+import com.fenrir.imagelink.service.ReadYourWrites;
+import com.fenrir.imagelink.service.UrlValidationWorker;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+final class Fixtures {
+
+    private Fixtures() { }
+
+    static Collection collection() {
+        LocalDateTime now = LocalDateTime.of(2022, 1, 1, 12, 0);
+        return Collection.builder()
+                .id(1L)
+                .code("12345678912")
+                .lifePeriod(86_400_000L)
+                .title("collection title")
+                .description("collection description")
+                .createdAt(now)
+                .updatedAt(now)
+                .expiresAt(now.plusYears(100))
+                .build();
+    }
+
+    static Image image(Collection collection, int index) {
+        LocalDateTime now = LocalDateTime.of(2022, 1, 1, 12, 0);
+        return Image.builder()
+                .id((long) index)
+                .code(String.format("%011d", index))
+                .originalUrl("https://images.example.com/gallery/" + index + ".png")
+                .title("image title " + index)
+                .description("image description " + index)
+                .createdAt(now)
+                .updatedAt(now)
+                .collection(collection)
+                .build();
+    }
+
+    static List<Image> images(Collection collection, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> image(collection, i))
+                .toList();
+    }
+
+    static ImageRequestDto imageRequest() {
+        return ImageRequestDto.builder()
+                .originalUrl("https://images.example.com/gallery/1.png")
+                .title("image title")
+                .description("image description")
+                .build();
+    }
+
+    static CodeIndex disabledCodeIndex() {
+        CodeIndexProperties properties = new CodeIndexProperties();
+        properties.setEnabled(false);
+        return new CodeIndex(properties, null, null);
+    }
+
+    static UrlValidationWorker disabledUrlValidation() {
+        UrlValidationProperties properties = new UrlValidationProperties();
+        properties.setEnabled(false);
+        return new UrlValidationWorker(properties, null, new OriginGuard(new OriginProperties()));
+    }
+
+    static ReadYourWrites disabledReadYourWrites() {
+        return new ReadYourWrites(new ReplicaProperties());
+    }
+}
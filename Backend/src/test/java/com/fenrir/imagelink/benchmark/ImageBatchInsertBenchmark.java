@@ -0,0 +1,124 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.config.CachingProperties;
+import com.fenrir.imagelink.config.CodeGenerationProperties;
+import com.fenrir.imagelink.config.CodePoolProperties;
+import com.fenrir.imagelink.dto.ImageBatchResultDto;
+import com.fenrir.imagelink.dto.ImageRequestDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapperImpl;
+import com.fenrir.imagelink.dto.mapper.ImageMapperImpl;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.service.CacheInvalidator;
+import com.fenrir.imagelink.service.CodeGenerationMetrics;
+import com.fenrir.imagelink.service.CodePool;
+import com.fenrir.imagelink.service.CollectionService;
+import com.fenrir.imagelink.service.LookupCoalescer;
+import com.fenrir.imagelink.service.RandomStringService;
+import com.fenrir.imagelink.service.RedirectCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares uploading a list of images one request at a time with the batch upload path.
+ * Both paths validate every image, as the controller does for single uploads.
+ * Repository calls are stubbed with a configurable simulated database round trip, so the
+ * result shows how the number of round trips per upload scales with the number of images.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageBatchInsertBenchmark {
+
+    @Param({ "0", "100" })
+    private long roundTripMicros;
+
+    @Param({ "100" })
+    private int images;
+
+    private Validator validator;
+    private CollectionService collectionService;
+    private List<ImageRequestDto> requests;
+
+    @Setup
+    public void setup() {
+        long roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        Collection collection = Collection.builder()
+                .id(1L)
+                .code("12345678912")
+                .lifePeriod(86_400_000L)
+                .title("benchmark")
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build();
+
+        CollectionRepository collectionRepository = RepositoryStubs.collectionRepository(roundTripNanos, collection);
+        ImageRepository imageRepository = RepositoryStubs.imageRepository(roundTripNanos, null);
+        RandomStringService randomStringService = new RandomStringService();
+
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        CodePoolProperties disabledPoolProperties = new CodePoolProperties();
+        disabledPoolProperties.setEnabled(false);
+
+        collectionService = new CollectionService(
+                randomStringService,
+                new CodePool(randomStringService, collectionRepository, imageRepository, disabledPoolProperties,
+                        new CodeGenerationMetrics()),
+                new CodeGenerationProperties(),
+                collectionRepository,
+                imageRepository,
+                new CollectionMapperImpl(),
+                new ImageMapperImpl(),
+                new CacheInvalidator(new NoOpCacheManager(), new RedirectCache(new CachingProperties()),
+                        Fixtures.disabledReadYourWrites()),
+                validator,
+                Fixtures.disabledCodeIndex(),
+                new CodeGenerationMetrics(),
+                Fixtures.disabledUrlValidation(),
+                new LookupCoalescer(),
+                Fixtures.disabledReadYourWrites()
+        );
+
+        requests = IntStream.range(0, images)
+                .mapToObj(i -> ImageRequestDto.builder()
+                        .originalUrl("http://localhost/image" + i + ".png")
+                        .title("image " + i)
+                        .build())
+                .toList();
+    }
+
+    @Benchmark
+    public void oneAtATime(Blackhole blackhole) {
+        for (ImageRequestDto request : requests) {
+            blackhole.consume(validator.validate(request));
+            blackhole.consume(collectionService.saveImage("12345678912", request));
+        }
+    }
+
+    @Benchmark
+    public List<ImageBatchResultDto> batch() {
+        return collectionService.saveImages("12345678912", requests);
+    }
+}
@@ -0,0 +1,87 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageRequestDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapperImpl;
+import com.fenrir.imagelink.dto.mapper.ImageMapperImpl;
+import com.fenrir.imagelink.model.Collection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Jackson work done per request, using an {@link ObjectMapper} configured the way
+ * Spring Boot configures the one behind the HTTP message converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({ "100" })
+    private int images;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter imageListWriter;
+    private ObjectReader imageRequestReader;
+
+    private ImageResponseDto image;
+    private List<ImageResponseDto> imageList;
+    private CollectionResponseDto collection;
+    private byte[] imageRequestJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        imageListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, ImageResponseDto.class));
+        imageRequestReader = objectMapper.readerFor(ImageRequestDto.class);
+
+        Collection collectionEntity = Fixtures.collection();
+        ImageMapperImpl imageMapper = new ImageMapperImpl();
+        image = imageMapper.toDto(Fixtures.image(collectionEntity, 1));
+        imageList = imageMapper.toDto(Fixtures.images(collectionEntity, images));
+        collection = new CollectionMapperImpl().toDto(collectionEntity);
+        imageRequestJson = objectMapper.writeValueAsBytes(Fixtures.imageRequest());
+    }
+
+    @Benchmark
+    public byte[] writeImage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(image);
+    }
+
+    @Benchmark
+    public byte[] writeImageList() throws JsonProcessingException {
+        return imageListWriter.writeValueAsBytes(imageList);
+    }
+
+    @Benchmark
+    public byte[] writeCollection() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(collection);
+    }
+
+    @Benchmark
+    public ImageRequestDto readImageRequest() throws Exception {
+        return imageRequestReader.readValue(imageRequestJson);
+    }
+}
@@ -0,0 +1,77 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageRequestDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapper;
+import com.fenrir.imagelink.dto.mapper.CollectionMapperImpl;
+import com.fenrir.imagelink.dto.mapper.ImageMapper;
+import com.fenrir.imagelink.dto.mapper.ImageMapperImpl;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the generated MapStruct mappers on the request path: a single entity to DTO,
+ * a whole collection page to DTOs and a request DTO to an entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({ "100" })
+    private int images;
+
+    private final ImageMapper imageMapper = new ImageMapperImpl();
+    private final CollectionMapper collectionMapper = new CollectionMapperImpl();
+
+    private Collection collection;
+    private Image image;
+    private List<Image> imageList;
+    private ImageRequestDto imageRequest;
+
+    @Setup
+    public void setup() {
+        collection = Fixtures.collection();
+        image = Fixtures.image(collection, 1);
+        imageList = Fixtures.images(collection, images);
+        imageRequest = Fixtures.imageRequest();
+    }
+
+    @Benchmark
+    public ImageResponseDto imageToDto() {
+        return imageMapper.toDto(image);
+    }
+
+    @Benchmark
+    public List<ImageResponseDto> imagesToDto() {
+        return imageMapper.toDto(imageList);
+    }
+
+    @Benchmark
+    public Image imageFromDto() {
+        return imageMapper.fromDto(imageRequest);
+    }
+
+    @Benchmark
+    public CollectionResponseDto collectionToDto() {
+        return collectionMapper.toDto(collection);
+    }
+}
@@ -0,0 +1,133 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.ImageLinkApplication;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.dto.mapper.ImageMapper;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.service.RandomStringService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths against a real PostgreSQL database, before and after switching them to DTO projections.
+ * {@code *Entity} load managed {@link Image} entities and map them with {@link ImageMapper}, as
+ * {@code getImage} and {@code getAllImagesByCollectionCode} did; {@code *Projection} run the constructor
+ * expression queries that now back them, in a read-only transaction. The gc profiler enabled by the
+ * benchmark profile reports the bytes allocated per call. Point {@code SPRING_DATASOURCE_URL} and
+ * {@code SPRING_R2DBC_URL} (and credentials) at a migrated, disposable database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionReadBenchmark {
+    private static final int IMAGES = 100;
+    private static final String ENTITY_IMAGES_BY_COLLECTION_CODE =
+            "select i from Image i where i.collection.code = :code and i.collection.expiresAt > current_timestamp";
+
+    private ConfigurableApplicationContext context;
+    private ImageRepository imageRepository;
+    private CollectionRepository collectionRepository;
+    private ImageMapper imageMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private Collection collection;
+    private List<String> codes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ImageLinkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "imagelink.code-pool.enabled=false",
+                        "imagelink.code-index.enabled=false",
+                        "imagelink.expiry.enabled=false")
+                .run();
+        imageRepository = context.getBean(ImageRepository.class);
+        collectionRepository = context.getBean(CollectionRepository.class);
+        imageMapper = context.getBean(ImageMapper.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        RandomStringService randomStringService = context.getBean(RandomStringService.class);
+
+        collection = collectionRepository.save(Collection.builder()
+                .code(randomStringService.generate(11))
+                .lifePeriod(86_400_000L)
+                .title("benchmark")
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+        List<Image> images = new ArrayList<>(IMAGES);
+        for (int i = 0; i < IMAGES; i++) {
+            images.add(Image.builder()
+                    .code(randomStringService.generate(11))
+                    .originalUrl("http://localhost/image" + i + ".png")
+                    .title("image " + i)
+                    .description("description " + i)
+                    .collection(collection)
+                    .build());
+        }
+        codes = imageRepository.saveAll(images).stream()
+                .map(Image::getCode)
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        collectionRepository.deleteById(collection.getId());
+        context.close();
+    }
+
+    @Benchmark
+    public ImageResponseDto imageEntity() {
+        String code = codes.get(next++ % IMAGES);
+        return imageMapper.toDto(imageRepository.findByCode(code).orElseThrow());
+    }
+
+    @Benchmark
+    public ImageResponseDto imageProjection() {
+        String code = codes.get(next++ % IMAGES);
+        return readOnlyTransaction.execute(status -> imageRepository.findDtoByCode(code).orElseThrow());
+    }
+
+    @Benchmark
+    public List<ImageResponseDto> collectionImagesEntity() {
+        return readOnlyTransaction.execute(status -> imageMapper.toDto(entityManager
+                .createQuery(ENTITY_IMAGES_BY_COLLECTION_CODE, Image.class)
+                .setParameter("code", collection.getCode())
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<ImageResponseDto> collectionImagesProjection() {
+        return readOnlyTransaction.execute(status -> imageRepository.findAllByCollectionCode(collection.getCode()));
+    }
+}
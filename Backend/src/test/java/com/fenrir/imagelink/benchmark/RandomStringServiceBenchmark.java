@@ -0,0 +1,89 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.config.CodeGenerationProperties;
+import com.fenrir.imagelink.service.RandomStringService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of generating one collection or image code, alone and with four threads competing.
+ * {@code base64Encoder} is the previous implementation, kept as a baseline. The gc profiler
+ * enabled by the benchmark profile reports the bytes allocated per call next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomStringServiceBenchmark {
+
+    @Param({ "11" })
+    private int length;
+
+    private RandomStringService fastService;
+    private RandomStringService secureService;
+
+    @Setup
+    public void setup() {
+        fastService = new RandomStringService();
+        CodeGenerationProperties secure = new CodeGenerationProperties();
+        secure.setRandomness(CodeGenerationProperties.Randomness.SECURE);
+        secureService = new RandomStringService(secure);
+    }
+
+    @Benchmark
+    public String base64Encoder() {
+        return base64EncoderGenerate(length);
+    }
+
+    @Benchmark
+    public String generate() {
+        return fastService.generate(length);
+    }
+
+    @Benchmark
+    public String generateSecure() {
+        return secureService.generate(length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String base64EncoderContended() {
+        return base64EncoderGenerate(length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateContended() {
+        return fastService.generate(length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateSecureContended() {
+        return secureService.generate(length);
+    }
+
+    private static String base64EncoderGenerate(int length) {
+        byte[] arr = new byte[(length * 3) / 4];
+        ThreadLocalRandom.current().nextBytes(arr);
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(arr);
+    }
+}
@@ -0,0 +1,136 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.ImageLinkApplication;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.dto.mapper.ImageMapper;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.service.RandomStringService;
+import com.fenrir.imagelink.service.ReactiveReadService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves {@code lookups} image codes concurrently against a real PostgreSQL database, through the
+ * blocking JPA path on a pool of {@code threads} platform threads and through the R2DBC path, which
+ * keeps every lookup in flight on the driver's event loop (one thread per core). Both sides get the
+ * same number of database connections. Point {@code SPRING_DATASOURCE_URL} and {@code SPRING_R2DBC_URL}
+ * (and credentials) at the same migrated, disposable database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveReadBenchmark {
+    private static final int IMAGES = 100;
+    private static final int CONNECTIONS = 10;
+
+    @Param({ "64", "1024" })
+    private int lookups;
+
+    @Param({ "8" })
+    private int threads;
+
+    private ConfigurableApplicationContext context;
+    private ImageRepository imageRepository;
+    private CollectionRepository collectionRepository;
+    private ImageMapper imageMapper;
+    private ReactiveReadService reactiveReadService;
+    private ExecutorService executor;
+    private Collection collection;
+    private List<String> codes;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ImageLinkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.hikari.maximum-pool-size=" + CONNECTIONS,
+                        "spring.r2dbc.pool.max-size=" + CONNECTIONS,
+                        "imagelink.code-pool.enabled=false",
+                        "imagelink.expiry.enabled=false")
+                .run();
+        imageRepository = context.getBean(ImageRepository.class);
+        collectionRepository = context.getBean(CollectionRepository.class);
+        imageMapper = context.getBean(ImageMapper.class);
+        reactiveReadService = context.getBean(ReactiveReadService.class);
+        RandomStringService randomStringService = context.getBean(RandomStringService.class);
+        executor = Executors.newFixedThreadPool(threads);
+
+        collection = collectionRepository.save(Collection.builder()
+                .code(randomStringService.generate(11))
+                .lifePeriod(86_400_000L)
+                .title("benchmark")
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+        List<Image> images = new ArrayList<>(IMAGES);
+        for (int i = 0; i < IMAGES; i++) {
+            images.add(Image.builder()
+                    .code(randomStringService.generate(11))
+                    .originalUrl("http://localhost/image" + i + ".png")
+                    .title("image " + i)
+                    .collection(collection)
+                    .build());
+        }
+        codes = imageRepository.saveAll(images).stream()
+                .map(Image::getCode)
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        collectionRepository.deleteById(collection.getId());
+        context.close();
+    }
+
+    @Benchmark
+    public List<ImageResponseDto> blocking() throws InterruptedException, ExecutionException {
+        List<Future<ImageResponseDto>> futures = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            String code = codes.get(i % IMAGES);
+            futures.add(executor.submit(() -> imageMapper.toDto(imageRepository.findByCode(code).orElseThrow())));
+        }
+
+        List<ImageResponseDto> result = new ArrayList<>(lookups);
+        for (Future<ImageResponseDto> future : futures) {
+            result.add(future.get());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ImageResponseDto> reactive() {
+        return Flux.range(0, lookups)
+                .flatMap(i -> reactiveReadService.getImage(codes.get(i % IMAGES)), lookups)
+                .collectList()
+                .block();
+    }
+}
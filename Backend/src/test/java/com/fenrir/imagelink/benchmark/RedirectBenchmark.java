@@ -0,0 +1,79 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.config.CachingProperties;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.service.CacheInvalidator;
+import com.fenrir.imagelink.service.Codes;
+import com.fenrir.imagelink.service.ImageService;
+import com.fenrir.imagelink.service.LookupCoalescer;
+import com.fenrir.imagelink.service.RedirectCache;
+import com.fenrir.imagelink.service.RedirectService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving an image code to its original URL. {@code redirectHit} is the hot path of {@code GET /i/{code}};
+ * {@code redirectMiss} evicts first, so it adds the projection query against a stubbed repository.
+ * {@code imageLookup} is what a client resolving a code paid before: the full entity loaded and mapped
+ * to {@link ImageResponseDto}. Sampled, so the JSON result carries p99 and p99.9 next to the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedirectBenchmark {
+    private static final String CODE = Codes.decode(0x1234_5678_9ABC_DEF0L);
+
+    private RedirectService redirectService;
+    private RedirectCache redirectCache;
+    private ImageService imageService;
+
+    @Setup
+    public void setup() {
+        Image image = Fixtures.image(Fixtures.collection(), 1);
+        image.setCode(CODE);
+        ImageRepository imageRepository = RepositoryStubs.imageRepository(0, image);
+        redirectCache = new RedirectCache(new CachingProperties());
+        redirectService = new RedirectService(
+                imageRepository, redirectCache, Fixtures.disabledCodeIndex(), Fixtures.disabledReadYourWrites());
+        imageService = new ImageService(
+                imageRepository,
+                new CacheInvalidator(new NoOpCacheManager(), redirectCache, Fixtures.disabledReadYourWrites()),
+                Fixtures.disabledCodeIndex(),
+                Fixtures.disabledUrlValidation(),
+                new LookupCoalescer(),
+                Fixtures.disabledReadYourWrites());
+        redirectService.resolve(CODE);
+    }
+
+    @Benchmark
+    public String redirectHit() {
+        return redirectService.resolve(CODE);
+    }
+
+    @Benchmark
+    public String redirectMiss() {
+        redirectCache.evict(CODE);
+        return redirectService.resolve(CODE);
+    }
+
+    @Benchmark
+    public ImageResponseDto imageLookup() {
+        return imageService.getImage(CODE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.dto.ImageRedirectDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapperImpl;
+import com.fenrir.imagelink.dto.mapper.ImageMapperImpl;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.locks.LockSupport;
+
+final class RepositoryStubs {
+
+    private static final ImageMapperImpl IMAGE_MAPPER = new ImageMapperImpl();
+    private static final CollectionMapperImpl COLLECTION_MAPPER = new CollectionMapperImpl();
+
+    private RepositoryStubs() { }
+
+    static CollectionRepository collectionRepository(long roundTripNanos, Object storedCollection) {
+        return stub(CollectionRepository.class, roundTripNanos, storedCollection);
+    }
+
+    static ImageRepository imageRepository(long roundTripNanos, Object storedImage) {
+        return stub(ImageRepository.class, roundTripNanos, storedImage);
+    }
+
+    private static <T> T stub(Class<T> repositoryType, long roundTripNanos, Object storedEntity) {
+        Object proxy = Proxy.newProxyInstance(
+                repositoryType.getClassLoader(),
+                new Class<?>[] { repositoryType },
+                (instance, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.invoke(storedEntity, args);
+                    }
+
+                    roundTrip(roundTripNanos);
+                    return switch (method.getName()) {
+                        case "existsByCode" -> false;
+                        case "tryInsert" -> true;
+                        case "findByCode" -> Optional.ofNullable(storedEntity);
+                        case "findDtoByCode" -> Optional.ofNullable(storedEntity).map(RepositoryStubs::toDto);
+                        case "findRedirectByCode" -> Optional.ofNullable((Image) storedEntity)
+                                .map(image -> new ImageRedirectDto(image.getOriginalUrl(), LocalDateTime.now().plusDays(1)));
+                        case "findExistingCodes", "findAllByCollectionCode" -> Collections.emptyList();
+                        case "save" -> args[0];
+                        case "insertAll" -> {
+                            roundTrip(roundTripNanos);
+                            yield null;
+                        }
+                        case "delete" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+        return repositoryType.cast(proxy);
+    }
+
+    private static Object toDto(Object entity) {
+        return entity instanceof Image image ? IMAGE_MAPPER.toDto(image) : COLLECTION_MAPPER.toDto((Collection) entity);
+    }
+
+    private static void roundTrip(long nanos) {
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+}
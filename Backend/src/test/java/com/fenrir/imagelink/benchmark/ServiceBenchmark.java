@@ -0,0 +1,95 @@
+package com.fenrir.imagelink.benchmark;
+
+import com.fenrir.imagelink.config.CachingProperties;
+import com.fenrir.imagelink.config.CodeGenerationProperties;
+import com.fenrir.imagelink.config.CodePoolProperties;
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapperImpl;
+import com.fenrir.imagelink.dto.mapper.ImageMapperImpl;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.service.CacheInvalidator;
+import com.fenrir.imagelink.service.CodeGenerationMetrics;
+import com.fenrir.imagelink.service.CodePool;
+import com.fenrir.imagelink.service.CollectionService;
+import com.fenrir.imagelink.service.ImageService;
+import com.fenrir.imagelink.service.LookupCoalescer;
+import com.fenrir.imagelink.service.RandomStringService;
+import com.fenrir.imagelink.service.RedirectCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import javax.validation.Validation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the service layer on read paths, excluding the database: repositories are
+ * stubbed without a simulated round trip and caching is disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final String CODE = "12345678912";
+
+    private ImageService imageService;
+    private CollectionService collectionService;
+
+    @Setup
+    public void setup() {
+        Collection collection = Fixtures.collection();
+        CollectionRepository collectionRepository = RepositoryStubs.collectionRepository(0, collection);
+        ImageRepository imageRepository = RepositoryStubs.imageRepository(0, Fixtures.image(collection, 1));
+        RandomStringService randomStringService = new RandomStringService();
+        CacheInvalidator cacheInvalidator = new CacheInvalidator(
+                new NoOpCacheManager(), new RedirectCache(new CachingProperties()), Fixtures.disabledReadYourWrites());
+
+        CodePoolProperties disabledPoolProperties = new CodePoolProperties();
+        disabledPoolProperties.setEnabled(false);
+
+        imageService = new ImageService(
+                imageRepository, cacheInvalidator, Fixtures.disabledCodeIndex(), Fixtures.disabledUrlValidation(),
+                new LookupCoalescer(), Fixtures.disabledReadYourWrites());
+        collectionService = new CollectionService(
+                randomStringService,
+                new CodePool(randomStringService, collectionRepository, imageRepository, disabledPoolProperties,
+                        new CodeGenerationMetrics()),
+                new CodeGenerationProperties(),
+                collectionRepository,
+                imageRepository,
+                new CollectionMapperImpl(),
+                new ImageMapperImpl(),
+                cacheInvalidator,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                Fixtures.disabledCodeIndex(),
+                new CodeGenerationMetrics(),
+                Fixtures.disabledUrlValidation(),
+                new LookupCoalescer(),
+                Fixtures.disabledReadYourWrites()
+        );
+    }
+
+    @Benchmark
+    public ImageResponseDto getImage() {
+        return imageService.getImage(CODE);
+    }
+
+    @Benchmark
+    public CollectionResponseDto getCollection() {
+        return collectionService.getCollection(CODE);
+    }
+}
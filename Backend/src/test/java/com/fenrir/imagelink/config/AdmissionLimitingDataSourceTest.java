@@ -0,0 +1,63 @@
+package com.fenrir.imagelink.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AdmissionLimitingDataSourceTest {
+    private final DataSource target = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final AdmissionLimitingDataSource dataSource =
+            new AdmissionLimitingDataSource(target, 2, Duration.ofMillis(50));
+
+    @Test
+    public void givenAdmittedConnection_whenClose_thenReleasePermitOnce() throws SQLException {
+        // Given
+        given(target.getConnection()).willReturn(connection);
+        Connection admitted = dataSource.getConnection();
+
+        // When
+        admitted.close();
+        admitted.close();
+
+        // Then
+        verify(connection, times(2)).close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenAllPermitsTaken_whenGetConnection_thenThrowAfterTimeout() throws SQLException {
+        // Given
+        given(target.getConnection()).willReturn(connection);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // When
+        // Then
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("admission limit");
+    }
+
+    @Test
+    public void givenTargetFailure_whenGetConnection_thenReleasePermit() throws SQLException {
+        // Given
+        given(target.getConnection()).willThrow(new SQLException("connection refused"));
+
+        // When
+        // Then
+        assertThatThrownBy(dataSource::getConnection).hasMessage("connection refused");
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+}
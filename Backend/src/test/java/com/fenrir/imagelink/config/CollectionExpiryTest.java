@@ -0,0 +1,58 @@
+package com.fenrir.imagelink.config;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CollectionExpiryTest {
+    private final CollectionExpiry collectionExpiry = new CollectionExpiry(
+            Duration.ofMinutes(10), value -> ((CollectionResponseDto) value).getExpiresAt());
+
+    @Test
+    public void givenCollectionExpiringAfterTimeToLive_whenExpireAfterCreate_thenReturnTimeToLive() {
+        // Given
+        CollectionResponseDto collection = CollectionResponseDto.builder()
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build();
+
+        // When
+        long expireAfter = collectionExpiry.expireAfterCreate("12345678912", collection, 0);
+
+        // Then
+        assertThat(expireAfter).isEqualTo(Duration.ofMinutes(10).toNanos());
+    }
+
+    @Test
+    public void givenCollectionExpiringBeforeTimeToLive_whenExpireAfterCreate_thenReturnRemainingLifetime() {
+        // Given
+        CollectionResponseDto collection = CollectionResponseDto.builder()
+                .expiresAt(LocalDateTime.now().plusMinutes(1))
+                .build();
+
+        // When
+        long expireAfter = collectionExpiry.expireAfterCreate("12345678912", collection, 0);
+
+        // Then
+        assertThat(expireAfter)
+                .isPositive()
+                .isLessThanOrEqualTo(Duration.ofMinutes(1).toNanos());
+    }
+
+    @Test
+    public void givenExpiredCollection_whenExpireAfterCreate_thenReturnZero() {
+        // Given
+        CollectionResponseDto collection = CollectionResponseDto.builder()
+                .expiresAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+
+        // When
+        long expireAfter = collectionExpiry.expireAfterCreate("12345678912", collection, 0);
+
+        // Then
+        assertThat(expireAfter).isZero();
+    }
+}
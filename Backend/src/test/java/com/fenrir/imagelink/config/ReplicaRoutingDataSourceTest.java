@@ -0,0 +1,139 @@
+package com.fenrir.imagelink.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource firstReplica = mock(DataSource.class);
+    private final DataSource secondReplica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        given(primary.getConnection()).willReturn(primaryConnection);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("first", firstReplica);
+        replicas.put("second", secondReplica);
+        dataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(10), Duration.ofSeconds(5));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        dataSource.close();
+    }
+
+    @Test
+    public void givenHealthyReplicas_whenGetConnection_thenRoundRobinReadsAndKeepWritesOnPrimary() throws SQLException {
+        // Given
+        replicaReportsLag(firstReplica, firstConnection, 0);
+        replicaReportsLag(secondReplica, secondConnection, 0.5);
+        dataSource.checkHealth();
+
+        // When
+        Connection firstRead = dataSource.getConnection();
+        Connection secondRead = dataSource.getConnection();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        Connection write = dataSource.getConnection();
+
+        // Then
+        assertThat(firstRead).isSameAs(firstConnection);
+        assertThat(secondRead).isSameAs(secondConnection);
+        assertThat(write).isSameAs(primaryConnection);
+        assertThat(dataSource.replicaReads()).isEqualTo(2);
+        assertThat(dataSource.getReplicas())
+                .extracting(ReplicaRoutingDataSource.Replica::getReads)
+                .containsExactly(1L, 1L);
+    }
+
+    @Test
+    public void givenLaggingReplica_whenGetConnection_thenRouteAroundIt() throws SQLException {
+        // Given
+        replicaReportsLag(firstReplica, firstConnection, 30);
+        replicaReportsLag(secondReplica, secondConnection, 0);
+        dataSource.checkHealth();
+
+        // When
+        Connection firstRead = dataSource.getConnection();
+        Connection secondRead = dataSource.getConnection();
+
+        // Then
+        assertThat(firstRead).isSameAs(secondConnection);
+        assertThat(secondRead).isSameAs(secondConnection);
+        assertThat(dataSource.getReplicas().get(0).isHealthy()).isFalse();
+        assertThat(dataSource.getReplicas().get(0).getLagSeconds()).isEqualTo(30);
+    }
+
+    @Test
+    public void givenFailingReplicas_whenGetConnection_thenMarkDownAndFallBackToPrimary() throws SQLException {
+        // Given
+        replicaReportsLag(firstReplica, firstConnection, 0);
+        replicaReportsLag(secondReplica, secondConnection, 0);
+        dataSource.checkHealth();
+        given(firstReplica.getConnection()).willThrow(new SQLException("connection refused"));
+        given(secondReplica.getConnection()).willThrow(new SQLException("connection refused"));
+
+        // When
+        Connection read = dataSource.getConnection();
+
+        // Then
+        assertThat(read).isSameAs(primaryConnection);
+        assertThat(dataSource.fallbackReads()).isEqualTo(1);
+        assertThat(dataSource.getReplicas()).noneMatch(ReplicaRoutingDataSource.Replica::isHealthy);
+    }
+
+    @Test
+    public void givenPinnedToPrimary_whenGetConnection_thenUsePrimary() throws SQLException {
+        // Given
+        replicaReportsLag(firstReplica, firstConnection, 0);
+        replicaReportsLag(secondReplica, secondConnection, 0);
+        dataSource.checkHealth();
+
+        // When
+        Connection read = ReplicaRoutingDataSource.onPrimary(this::readConnection);
+
+        // Then
+        assertThat(read).isSameAs(primaryConnection);
+        assertThat(dataSource.pinnedReads()).isEqualTo(1);
+        assertThat(dataSource.replicaReads()).isZero();
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    private Connection readConnection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void replicaReportsLag(DataSource replica, Connection connection, double lagSeconds) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        given(replica.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(ReplicaRoutingDataSource.REPLICATION_LAG_SQL)).willReturn(statement);
+        given(statement.executeQuery()).willReturn(resultSet);
+        given(resultSet.next()).willReturn(true);
+        given(resultSet.getDouble(1)).willReturn(lagSeconds);
+    }
+}
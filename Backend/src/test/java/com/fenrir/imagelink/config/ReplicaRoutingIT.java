@@ -0,0 +1,106 @@
+package com.fenrir.imagelink.config;
+
+import com.fenrir.imagelink.repository.ImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes JPA transactions through {@link ReplicaRoutingDataSource} against PostgreSQL. A second pool on the same
+ * database stands in for the replica, and the two pools are told apart by their {@code application_name}.
+ * Run with {@code mvn verify -Pintegration-test} against a PostgreSQL instance configured through {@code spring.datasource.*}.
+ */
+@DataJpaTest(properties = {
+        "imagelink.replicas.enabled=true",
+        "imagelink.replicas.urls=${spring.datasource.url}?ApplicationName=imagelink-replica",
+        "imagelink.replicas.health-check-interval=PT0.1S",
+        "spring.datasource.hikari.data-source-properties.ApplicationName=imagelink-primary"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReplicaConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingIT {
+    private static final String APPLICATION_NAME_SQL = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    private ReplicaRoutingDataSource routing;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setup() throws SQLException, InterruptedException {
+        routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        for (int attempt = 0; attempt < 100 && !routing.getReplicas().get(0).isHealthy(); attempt++) {
+            Thread.sleep(50);
+        }
+        assertThat(routing.getReplicas().get(0).isHealthy()).isTrue();
+    }
+
+    @Test
+    public void givenReadOnlyTransaction_whenQuery_thenServedByReplica() {
+        // When
+        String readOnlyApplication = readOnly.execute(status -> applicationName());
+        String readWriteApplication = readWrite.execute(status -> applicationName());
+
+        // Then
+        assertThat(readOnlyApplication).isEqualTo("imagelink-replica");
+        assertThat(readWriteApplication).isEqualTo("imagelink-primary");
+    }
+
+    @Test
+    public void givenRepositoryQueryMethod_whenCalledOutsideTransaction_thenServedByReplica() {
+        // Given
+        long replicaReads = routing.replicaReads();
+
+        // When
+        imageRepository.findDtoByCode("rr000000001");
+
+        // Then
+        assertThat(routing.replicaReads()).isEqualTo(replicaReads + 1);
+    }
+
+    @Test
+    public void givenPinnedToPrimary_whenReadOnlyTransaction_thenServedByPrimary() {
+        // Given
+        long pinnedReads = routing.pinnedReads();
+
+        // When
+        String application = ReplicaRoutingDataSource.onPrimary(() -> readOnly.execute(status -> applicationName()));
+
+        // Then
+        assertThat(application).isEqualTo("imagelink-primary");
+        assertThat(routing.pinnedReads()).isEqualTo(pinnedReads + 1);
+    }
+
+    private String applicationName() {
+        return (String) entityManager.createNativeQuery(APPLICATION_NAME_SQL).getSingleResult();
+    }
+}
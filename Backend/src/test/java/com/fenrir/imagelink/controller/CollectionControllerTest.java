@@ -1,30 +1,44 @@
 package com.fenrir.imagelink.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.imagelink.controller.cache.SerializedResponseCache;
+import com.fenrir.imagelink.dto.CollectionDeleteResultDto;
 import com.fenrir.imagelink.dto.CollectionRequestDto;
 import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageBatchResultDto;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
 import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.service.CollectionBulkDeleteService;
 import com.fenrir.imagelink.service.CollectionService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -32,9 +46,11 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CollectionController.class)
+@Import({ SerializedResponseCache.class, NoOpCacheManager.class })
 class CollectionControllerTest {
 
     @Autowired
@@ -43,6 +59,9 @@ class CollectionControllerTest {
     @MockBean
     private CollectionService collectionService;
 
+    @MockBean
+    private CollectionBulkDeleteService collectionBulkDeleteService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -127,7 +146,8 @@ class CollectionControllerTest {
         // Then
         response.andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(jsonPath("$.size()", is(images.size())));
+                .andExpect(jsonPath("$.size()", is(images.size())))
+                .andExpect(header().exists(HttpHeaders.ETAG));
     }
 
     @Test
@@ -151,6 +171,211 @@ class CollectionControllerTest {
                 .andExpect(jsonPath("$.description", is(notNullValue())));
     }
 
+    @Test
+    public void givenFullPage_whenGetImagesPageByCollectionCode_thenReturnPageWithNextLink() throws Exception {
+        // Given
+        String collectionCode = "ABCDEF";
+        List<ImageResponseDto> images = List.of(
+                ImageResponseDto.builder()
+                        .code("FEDCBA")
+                        .originalUrl("http://localhost:1234/image1.png")
+                        .title("Image 1")
+                        .build(),
+                ImageResponseDto.builder()
+                        .code("CBAFED")
+                        .originalUrl("http://localhost:1234/image2.png")
+                        .title("Image 2")
+                        .build()
+        );
+        given(collectionService.getImagesPageByCollectionCode(collectionCode, null, 2))
+                .willReturn(images);
+
+        // When
+        ResultActions response = mockMvc.perform(get("/api/v1/collections/{collectionCode}/images", collectionCode)
+                .param("limit", "2"));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(images.size())))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("after=CBAFED")))
+                .andExpect(header().string(HttpHeaders.LINK, endsWith("rel=\"next\"")));
+    }
+
+    @Test
+    public void givenLastPage_whenGetImagesPageByCollectionCode_thenReturnPageWithoutNextLink() throws Exception {
+        // Given
+        String collectionCode = "ABCDEF";
+        List<ImageResponseDto> images = List.of(
+                ImageResponseDto.builder()
+                        .code("FEDCBA")
+                        .originalUrl("http://localhost:1234/image1.png")
+                        .title("Image 1")
+                        .build()
+        );
+        given(collectionService.getImagesPageByCollectionCode(collectionCode, "CBAFED", 2))
+                .willReturn(images);
+
+        // When
+        ResultActions response = mockMvc.perform(get("/api/v1/collections/{collectionCode}/images", collectionCode)
+                .param("limit", "2")
+                .param("after", "CBAFED"));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(images.size())))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void givenCursorWithoutLimit_whenGetImagesPageByCollectionCode_thenUseDefaultPageSize() throws Exception {
+        // Given
+        String collectionCode = "ABCDEF";
+        List<ImageResponseDto> images = List.of(
+                ImageResponseDto.builder()
+                        .code("FEDCBA")
+                        .originalUrl("http://localhost:1234/image1.png")
+                        .title("Image 1")
+                        .build()
+        );
+        given(collectionService.getImagesPageByCollectionCode(collectionCode, "CBAFED", 100))
+                .willReturn(images);
+
+        // When
+        ResultActions response = mockMvc.perform(get("/api/v1/collections/{collectionCode}/images", collectionCode)
+                .param("after", "CBAFED"));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(images.size())))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void givenStreamParameter_whenStreamAllImagesByCollectionCode_thenReturnJsonArray() throws Exception {
+        // Given
+        String collectionCode = "ABCDEF";
+        ImageResponseDto image = ImageResponseDto.builder()
+                .code("FEDCBA")
+                .originalUrl("http://localhost:1234/image1.png")
+                .title("Image 1")
+                .build();
+        willAnswer(invocation -> {
+            Consumer<ImageResponseDto> consumer = invocation.getArgument(1);
+            consumer.accept(image);
+            consumer.accept(image);
+            return null;
+        }).given(collectionService).streamAllImagesByCollectionCode(eq(collectionCode), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/collections/{collectionCode}/images", collectionCode)
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].code", is(image.getCode())));
+    }
+
+    @Test
+    public void givenImageList_whenSaveImages_thenReturnCreatedWithPerItemResults() throws Exception {
+        // Given
+        String collectionCode = "ABCDEF";
+        List<ImageRequestDto> imageRequestDtos = List.of(
+                ImageRequestDto.builder()
+                        .originalUrl("http://localhost:1234/image1.png")
+                        .title("Image 1")
+                        .build(),
+                ImageRequestDto.builder()
+                        .originalUrl("http://localhost:1234/image2.png")
+                        .title("Image 2")
+                        .build()
+        );
+        List<ImageBatchResultDto> results = List.of(
+                ImageBatchResultDto.builder()
+                        .index(0)
+                        .status(HttpStatus.CREATED.value())
+                        .image(ImageResponseDto.builder().code("FEDCBA").build())
+                        .build(),
+                ImageBatchResultDto.builder()
+                        .index(1)
+                        .status(HttpStatus.CREATED.value())
+                        .image(ImageResponseDto.builder().code("CBAFED").build())
+                        .build()
+        );
+        given(collectionService.saveImages(collectionCode, imageRequestDtos))
+                .willReturn(results);
+
+        // When
+        ResultActions response = mockMvc.perform(post("/api/v1/collections/{collectionCode}/images:batch", collectionCode)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(imageRequestDtos)));
+
+        // Then
+        response.andExpect(status().isCreated())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].image.code", is("CBAFED")));
+    }
+
+    @Test
+    public void givenPartiallyInvalidImageList_whenSaveImages_thenReturnMultiStatus() throws Exception {
+        // Given
+        String collectionCode = "ABCDEF";
+        List<ImageRequestDto> imageRequestDtos = List.of(
+                ImageRequestDto.builder()
+                        .originalUrl("http://localhost:1234/image1.png")
+                        .title("Image 1")
+                        .build(),
+                ImageRequestDto.builder()
+                        .originalUrl("http://localhost:1234/image2.png")
+                        .build()
+        );
+        List<ImageBatchResultDto> results = List.of(
+                ImageBatchResultDto.builder()
+                        .index(0)
+                        .status(HttpStatus.CREATED.value())
+                        .image(ImageResponseDto.builder().code("FEDCBA").build())
+                        .build(),
+                ImageBatchResultDto.builder()
+                        .index(1)
+                        .status(HttpStatus.CONFLICT.value())
+                        .build()
+        );
+        given(collectionService.saveImages(collectionCode, imageRequestDtos))
+                .willReturn(results);
+
+        // When
+        ResultActions response = mockMvc.perform(post("/api/v1/collections/{collectionCode}/images:batch", collectionCode)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(imageRequestDtos)));
+
+        // Then
+        response.andExpect(status().isMultiStatus())
+                .andDo(print())
+                .andExpect(jsonPath("$[1].status", is(HttpStatus.CONFLICT.value())));
+    }
+
+    @Test
+    public void givenEmptyImageList_whenSaveImages_thenReturnErrorMessage() throws Exception {
+        // When
+        ResultActions response = mockMvc.perform(post("/api/v1/collections/{collectionCode}/images:batch", "ABCDEF")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+
+        // Then
+        response.andExpect(status().isConflict())
+                .andDo(print())
+                .andExpect(jsonPath("$.statusCode", is(HttpStatus.CONFLICT.value())));
+    }
+
     @Test
     public void givenCollectionObject_whenSaveCollection_thenReturnSavedCollection() throws Exception {
         // Given
@@ -354,4 +579,37 @@ class CollectionControllerTest {
                 .andExpect(jsonPath("$.message", is(errorMessage)))
                 .andExpect(jsonPath("$.description", is(notNullValue())));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenCollectionCodes_whenDeleteCollections_thenReturnDeletedCounts() throws Exception {
+        // Given
+        List<String> codes = List.of("ABCDEF", "GHIJKL");
+        given(collectionBulkDeleteService.deleteCollections(codes))
+                .willReturn(new CollectionDeleteResultDto(2, 1, 3));
+
+        // When
+        ResultActions response = mockMvc.perform(delete("/api/v1/collections")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(codes)));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.requested", is(2)))
+                .andExpect(jsonPath("$.deletedCollections", is(1)))
+                .andExpect(jsonPath("$.deletedImages", is(3)));
+    }
+
+    @Test
+    public void givenEmptyCodeList_whenDeleteCollections_thenReturnErrorMessage() throws Exception {
+        // When
+        ResultActions response = mockMvc.perform(delete("/api/v1/collections")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+
+        // Then
+        response.andExpect(status().isConflict())
+                .andDo(print())
+                .andExpect(jsonPath("$.statusCode", is(HttpStatus.CONFLICT.value())));
+    }
+}
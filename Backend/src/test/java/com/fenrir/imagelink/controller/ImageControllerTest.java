@@ -1,19 +1,30 @@
 package com.fenrir.imagelink.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.imagelink.controller.cache.ETags;
+import com.fenrir.imagelink.controller.cache.SerializedResponseCache;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
 import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.service.CachedFile;
 import com.fenrir.imagelink.service.ImageService;
+import com.fenrir.imagelink.service.ThumbnailService;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 
 import static org.hamcrest.Matchers.is;
@@ -21,14 +32,19 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ImageController.class)
+@Import({ SerializedResponseCache.class, NoOpCacheManager.class })
 class ImageControllerTest {
 
     @Autowired
@@ -37,6 +53,12 @@ class ImageControllerTest {
     @MockBean
     private ImageService imageService;
 
+    @MockBean
+    private ThumbnailService thumbnailService;
+
+    @TempDir
+    private Path thumbnailDirectory;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -66,7 +88,35 @@ class ImageControllerTest {
                 .andExpect(jsonPath("$.title", is(imageResponseDto.getTitle())))
                 .andExpect(jsonPath("$.description", is(imageResponseDto.getDescription())))
                 .andExpect(jsonPath("$.createdAt", is(imageResponseDto.getCreatedAt().toString())))
-                .andExpect(jsonPath("$.updatedAt", is(imageResponseDto.getUpdatedAt().toString())));
+                .andExpect(jsonPath("$.updatedAt", is(imageResponseDto.getUpdatedAt().toString())))
+                .andExpect(header().string(HttpHeaders.ETAG,
+                        ETags.fromUpdatedAt(imageResponseDto.getCode(), imageResponseDto.getUpdatedAt())));
+    }
+
+    @Test
+    public void givenMatchingETag_whenGetImageByCode_thenReturnNotModified() throws Exception {
+        // Given
+        String imageCode = "ABCDEF";
+        ImageResponseDto imageResponseDto = ImageResponseDto.builder()
+                .code(imageCode)
+                .originalUrl("http://localhost:1234/image.png")
+                .title("Image")
+                .createdAt(LocalDateTime.of(2022, 1, 1, 12, 10, 10))
+                .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 10, 10))
+                .build();
+        given(imageService.getImage(imageCode))
+                .willReturn(imageResponseDto);
+        String eTag = ETags.fromUpdatedAt(imageCode, imageResponseDto.getUpdatedAt());
+
+        // When
+        ResultActions response = mockMvc.perform(get("/api/v1/images/{code}", imageCode)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        // Then
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
     }
 
     @Test
@@ -187,4 +237,42 @@ class ImageControllerTest {
                 .andExpect(jsonPath("$.message", is(errorMessage)))
                 .andExpect(jsonPath("$.description", is(notNullValue())));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenExistingImageCode_whenGetThumbnail_thenStreamThumbnailFile() throws Exception {
+        // Given
+        byte[] content = { 1, 2, 3, 4, 5 };
+        Path path = Files.write(thumbnailDirectory.resolve("abcdef-64.png"), content);
+        given(thumbnailService.getThumbnail("ABCDEF", 64))
+                .willReturn(new CachedFile(path, MediaType.IMAGE_PNG, content.length, "abcdef"));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/images/{code}/thumbnail", "ABCDEF").param("size", "64"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(content))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abcdef-64.png\""));
+    }
+
+    @Test
+    public void givenMatchingETag_whenGetThumbnail_thenReturnNotModified() throws Exception {
+        // Given
+        Path path = Files.write(thumbnailDirectory.resolve("abcdef-256.jpg"), new byte[] { 1 });
+        given(thumbnailService.defaultSize()).willReturn(256);
+        given(thumbnailService.getThumbnail("ABCDEF", 256))
+                .willReturn(new CachedFile(path, MediaType.IMAGE_JPEG, 1, "abcdef"));
+
+        // When
+        ResultActions response = mockMvc.perform(get("/api/v1/images/{code}/thumbnail", "ABCDEF")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abcdef-256.jpg\""));
+
+        // Then
+        response.andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+}
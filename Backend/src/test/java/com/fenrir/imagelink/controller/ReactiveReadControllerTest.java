@@ -0,0 +1,98 @@
+package com.fenrir.imagelink.controller;
+
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.service.ReactiveReadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReactiveReadController.class)
+class ReactiveReadControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveReadService reactiveReadService;
+
+    private final ImageResponseDto image = ImageResponseDto.builder()
+            .code("ABCDEF")
+            .originalUrl("http://localhost:1234/image.png")
+            .title("Image")
+            .createdAt(LocalDateTime.of(2022, 1, 1, 12, 10, 10))
+            .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 10, 10))
+            .build();
+
+    @Test
+    public void givenExistingImageCode_whenGetImageByCode_thenReturnImage() throws Exception {
+        // Given
+        given(reactiveReadService.getImage("ABCDEF")).willReturn(Mono.just(image));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/images/{code}", "ABCDEF"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.code", is(image.getCode())))
+                .andExpect(jsonPath("$.originalUrl", is(image.getOriginalUrl())))
+                .andExpect(jsonPath("$.createdAt", is(image.getCreatedAt().toString())));
+    }
+
+    @Test
+    public void givenNonExistingImageCode_whenGetImageByCode_thenReturnBadRequest() throws Exception {
+        // Given
+        given(reactiveReadService.getImage("ABCDEF"))
+                .willReturn(Mono.error(new ResourceNotFoundException("Image was not found for code = ABCDEF")));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/images/{code}", "ABCDEF"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isBadRequest())
+                .andDo(print())
+                .andExpect(jsonPath("$.message", is("Image was not found for code = ABCDEF")));
+    }
+
+    @Test
+    public void givenCollectionWithImages_whenGetAllImagesByCollectionCode_thenReturnImages() throws Exception {
+        // Given
+        given(reactiveReadService.getAllImagesByCollectionCode("QWERTY")).willReturn(Flux.just(image, image));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/collections/{code}/images", "QWERTY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].code", is(image.getCode())));
+    }
+}
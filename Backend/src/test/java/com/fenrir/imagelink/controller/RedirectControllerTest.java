@@ -0,0 +1,151 @@
+package com.fenrir.imagelink.controller;
+
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.service.CachedFile;
+import com.fenrir.imagelink.service.ImageProxyService;
+import com.fenrir.imagelink.service.RedirectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RedirectController.class)
+class RedirectControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RedirectService redirectService;
+
+    @MockBean
+    private ImageProxyService imageProxyService;
+
+    @TempDir
+    private Path cacheDirectory;
+
+    private final byte[] image = "0123456789".getBytes();
+    private final String eTag = "\"" + "a".repeat(64) + "\"";
+
+    @BeforeEach
+    public void setup() throws IOException {
+        Path path = Files.write(cacheDirectory.resolve("a".repeat(64)), image);
+        given(imageProxyService.getImage("ABCDEF"))
+                .willReturn(new CachedFile(path, MediaType.IMAGE_PNG, image.length, "a".repeat(64)));
+    }
+
+    @Test
+    public void givenExistingImageCode_whenRedirect_thenReturnFoundWithOriginalUrl() throws Exception {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn("http://localhost:1234/image.png");
+
+        // When
+        ResultActions response = mockMvc.perform(get("/i/{code}", "ABCDEF"));
+
+        // Then
+        response.andExpect(status().isFound())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost:1234/image.png"));
+    }
+
+    @Test
+    public void givenNonExistingImageCode_whenRedirect_thenReturnBadRequest() throws Exception {
+        // Given
+        given(redirectService.resolve("ABCDEF"))
+                .willThrow(new ResourceNotFoundException("Image was not found for code = ABCDEF"));
+
+        // When
+        ResultActions response = mockMvc.perform(get("/i/{code}", "ABCDEF"));
+
+        // Then
+        response.andExpect(status().isBadRequest())
+                .andDo(print())
+                .andExpect(jsonPath("$.message", is("Image was not found for code = ABCDEF")));
+    }
+
+    @Test
+    public void givenExistingImageCode_whenGetRaw_thenStreamCachedImage() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/i/{code}/raw", "ABCDEF")).andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(image))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+    }
+
+    @Test
+    public void givenRange_whenGetRaw_thenReturnPartialContent() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/i/{code}/raw", "ABCDEF")
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isPartialContent())
+                .andExpect(content().bytes("2345".getBytes()))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4));
+    }
+
+    @Test
+    public void givenSuffixRangeAndStaleIfRange_whenGetRaw_thenIgnoreRange() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/i/{code}/raw", "ABCDEF")
+                        .header(HttpHeaders.RANGE, "bytes=-3")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then
+        response.andExpect(status().isOk())
+                .andExpect(content().bytes(image));
+    }
+
+    @Test
+    public void givenUnsatisfiableRange_whenGetRaw_thenReturnRangeNotSatisfiable() throws Exception {
+        // When
+        ResultActions response = mockMvc.perform(get("/i/{code}/raw", "ABCDEF")
+                .header(HttpHeaders.RANGE, "bytes=10-20"));
+
+        // Then
+        response.andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    public void givenMatchingETag_whenGetRaw_thenReturnNotModified() throws Exception {
+        // When
+        ResultActions response = mockMvc.perform(get("/i/{code}/raw", "ABCDEF")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        // Then
+        response.andExpect(status().isNotModified());
+    }
+}
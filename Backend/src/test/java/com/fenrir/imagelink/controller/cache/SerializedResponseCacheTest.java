@@ -0,0 +1,145 @@
+package com.fenrir.imagelink.controller.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SerializedResponseCacheTest {
+    private static final String CACHE_NAME = "responses";
+
+    private ConcurrentMapCacheManager cacheManager;
+    private SerializedResponseCache serializedResponseCache;
+    private ImageResponseDto imageResponseDto;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = new ConcurrentMapCacheManager(CACHE_NAME);
+        serializedResponseCache = new SerializedResponseCache(
+                cacheManager,
+                new ObjectMapper().registerModule(new JavaTimeModule())
+        );
+
+        imageResponseDto = ImageResponseDto.builder()
+                .code("ABCDEF")
+                .originalUrl("url")
+                .title("title")
+                .createdAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .build();
+    }
+
+    @Test
+    public void givenCachedResponse_whenGetResponse_thenLoaderIsNotCalled() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<ImageResponseDto> loader = () -> {
+            loads.incrementAndGet();
+            return imageResponseDto;
+        };
+
+        // When
+        ResponseEntity<byte[]> first = getResponse(loader);
+        ResponseEntity<byte[]> second = getResponse(loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+    }
+
+    @Test
+    public void givenUpdatedTimestamp_whenGetResponse_thenETagChanges() {
+        // Given
+        String eTag = getResponse(() -> imageResponseDto).getHeaders().getETag();
+        cacheManager.getCache(CACHE_NAME).evict(imageResponseDto.getCode());
+        imageResponseDto.setUpdatedAt(imageResponseDto.getUpdatedAt().plusSeconds(1));
+
+        // When
+        ResponseEntity<byte[]> response = getResponse(() -> imageResponseDto);
+
+        // Then
+        assertThat(response.getHeaders().getETag())
+                .isNotNull()
+                .isNotEqualTo(eTag);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("application/json");
+    }
+
+    @Test
+    public void givenFailingLoader_whenGetResponse_thenPropagateExceptionAndCacheNothing() {
+        // Given
+        Supplier<ImageResponseDto> loader = () -> {
+            throw new IllegalStateException("not found");
+        };
+
+        // When
+        // Then
+        assertThatThrownBy(() -> getResponse(loader))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("not found");
+        assertThat(cacheManager.getCache(CACHE_NAME).get(imageResponseDto.getCode())).isNull();
+    }
+
+    @Test
+    public void givenLoadInFlight_whenEvicted_thenLoadedResponseIsNotLeftInCache() throws Exception {
+        // Given
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(CACHE_NAME);
+        serializedResponseCache = new SerializedResponseCache(
+                caffeineCacheManager,
+                new ObjectMapper().registerModule(new JavaTimeModule())
+        );
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<byte[]>> staleRead = CompletableFuture.supplyAsync(() -> getResponse(() -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return imageResponseDto;
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<Void> eviction = CompletableFuture.runAsync(
+                () -> caffeineCacheManager.getCache(CACHE_NAME).evict(imageResponseDto.getCode()));
+        try {
+            eviction.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The eviction waits for the in-flight load of the same key.
+        }
+        release.countDown();
+        staleRead.get(5, TimeUnit.SECONDS);
+        eviction.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(caffeineCacheManager.getCache(CACHE_NAME).get(imageResponseDto.getCode())).isNull();
+    }
+
+    private ResponseEntity<byte[]> getResponse(Supplier<ImageResponseDto> loader) {
+        return serializedResponseCache.getResponse(
+                CACHE_NAME,
+                imageResponseDto.getCode(),
+                loader,
+                image -> ETags.fromUpdatedAt(image.getCode(), image.getUpdatedAt()),
+                ImageResponseDto::getExpiresAt
+        );
+    }
+}
@@ -0,0 +1,202 @@
+package com.fenrir.imagelink.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fenrir.imagelink.ImageLinkApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+
+/**
+ * Compares the platform and virtual thread execution modes under the same closed-loop load. For each
+ * mode in {@code loadtest.modes} the application is started on a random port and a collection of
+ * {@code loadtest.images} images is seeded. Then {@code loadtest.concurrency} clients fetch keyset pages
+ * of it, and add an image for a {@code loadtest.write-ratio} share of requests, for
+ * {@code loadtest.duration} after {@code loadtest.warmup}. Throughput, latency percentiles and failed
+ * requests per mode are printed and written as JSON to {@code loadtest.result}.
+ * Point {@code SPRING_DATASOURCE_URL} (and credentials) at a migrated, disposable database.
+ * The virtual mode needs a Java 21 runtime.
+ */
+public class LoadTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int SEED_BATCH_SIZE = 500;
+    private static final int PAGE_SIZE = 20;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 400);
+    private final int images = Integer.getInteger("loadtest.images", 1000);
+    private final double writeRatio = Double.parseDouble(System.getProperty("loadtest.write-ratio", "0.1"));
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest();
+        List<Result> results = new ArrayList<>();
+
+        for (String mode : System.getProperty("loadtest.modes", "platform,virtual").split(",")) {
+            Result result = loadTest.run(mode.trim());
+            System.out.println(result);
+            results.add(result);
+        }
+
+        Path output = Path.of(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), results);
+        System.out.println("Load test result is saved to " + output.toAbsolutePath());
+    }
+
+    private Result run(String mode) throws Exception {
+        try (var context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(ImageLinkApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "imagelink.execution.mode=" + mode,
+                        "imagelink.expiry.enabled=false")
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/api/v1/collections/";
+            String collectionCode = seedCollection(baseUrl);
+            List<String> imageCodes = seedImages(baseUrl, collectionCode);
+
+            ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+            try {
+                long measureFrom = System.nanoTime() + warmup.toNanos();
+                long measureUntil = measureFrom + duration.toNanos();
+                List<Future<Samples>> futures = new ArrayList<>();
+                for (int i = 0; i < concurrency; i++) {
+                    futures.add(clients.submit(() -> drive(baseUrl, collectionCode, imageCodes, measureFrom, measureUntil)));
+                }
+
+                LongStream.Builder latencies = LongStream.builder();
+                Map<Integer, Long> failures = new TreeMap<>();
+                for (Future<Samples> future : futures) {
+                    Samples samples = future.get();
+                    samples.latencies().build().forEach(latencies::add);
+                    samples.failures().forEach((status, count) -> failures.merge(status, count, Long::sum));
+                }
+                return Result.of(mode, concurrency, duration, latencies.build().sorted().toArray(), failures);
+            } finally {
+                clients.shutdownNow();
+            }
+        }
+    }
+
+    private Samples drive(String baseUrl, String collectionCode, List<String> imageCodes, long measureFrom, long measureUntil) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LongStream.Builder latencies = LongStream.builder();
+        Map<Integer, Long> failures = new TreeMap<>();
+
+        for (long start = System.nanoTime(); start < measureUntil; start = System.nanoTime()) {
+            HttpRequest request = random.nextDouble() < writeRatio
+                    ? post(baseUrl + collectionCode, imageRequest())
+                    : HttpRequest.newBuilder(URI.create(baseUrl + collectionCode + "/images?limit=" + PAGE_SIZE
+                            + "&after=" + imageCodes.get(random.nextInt(imageCodes.size())))).build();
+            int status;
+            try {
+                status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (start >= measureFrom) {
+                if (status >= 200 && status < 300) {
+                    latencies.add(System.nanoTime() - start);
+                } else {
+                    failures.merge(status, 1L, Long::sum);
+                }
+            }
+        }
+        return new Samples(latencies, failures);
+    }
+
+    private String seedCollection(String baseUrl) throws IOException, InterruptedException {
+        String body = "{\"lifePeriod\": 86400000, \"title\": \"load test\"}";
+        return send(post(baseUrl, body)).get("code").asText();
+    }
+
+    private List<String> seedImages(String baseUrl, String collectionCode) throws IOException, InterruptedException {
+        List<String> codes = new ArrayList<>(images);
+        while (codes.size() < images) {
+            int batch = Math.min(SEED_BATCH_SIZE, images - codes.size());
+            String body = "[" + String.join(",", Collections.nCopies(batch, imageRequest())) + "]";
+            for (JsonNode result : send(post(baseUrl + collectionCode + "/images:batch", body))) {
+                codes.add(result.get("image").get("code").asText());
+            }
+        }
+        return codes;
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+        }
+        return OBJECT_MAPPER.readTree(response.body());
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String imageRequest() {
+        return "{\"originalUrl\": \"https://example.com/image.png\", \"title\": \"load test\"}";
+    }
+
+    private record Samples(LongStream.Builder latencies, Map<Integer, Long> failures) { }
+
+    public record Result(
+            String mode,
+            int concurrency,
+            long requests,
+            double throughputPerSecond,
+            double p50Millis,
+            double p99Millis,
+            double maxMillis,
+            Map<Integer, Long> failures) {
+
+        static Result of(String mode, int concurrency, Duration duration, long[] sortedLatencies, Map<Integer, Long> failures) {
+            return new Result(
+                    mode,
+                    concurrency,
+                    sortedLatencies.length,
+                    sortedLatencies.length / (duration.toNanos() / 1e9),
+                    percentile(sortedLatencies, 0.50),
+                    percentile(sortedLatencies, 0.99),
+                    percentile(sortedLatencies, 1.0),
+                    failures);
+        }
+
+        private static double percentile(long[] sortedLatencies, double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.fenrir.imagelink.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class CapturingStatementInspector implements StatementInspector {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final List<Boolean> READ_ONLY = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        READ_ONLY.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        return sql;
+    }
+
+    public static List<String> capture(Runnable action) {
+        STATEMENTS.clear();
+        READ_ONLY.clear();
+        action.run();
+        return List.copyOf(STATEMENTS);
+    }
+
+    public static List<Boolean> captureReadOnly(Runnable action) {
+        capture(action);
+        return List.copyOf(READ_ONLY);
+    }
+}
@@ -0,0 +1,44 @@
+package com.fenrir.imagelink.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts that the by-code lookups the services call outside their own transactions still run in a read-only
+ * transaction. Spring Data applies no transaction to query methods declared on a repository interface, so these
+ * methods must declare it themselves. Run with {@code mvn verify -Pintegration-test} against a PostgreSQL instance
+ * configured through {@code spring.datasource.*}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.fenrir.imagelink.repository.CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LookupTransactionIT {
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    @Test
+    public void givenNoSurroundingTransaction_whenLookupByCode_thenRunInReadOnlyTransaction() {
+        // When
+        List<Boolean> readOnly = CapturingStatementInspector.captureReadOnly(() -> {
+            imageRepository.findDtoByCode("lt000000001");
+            imageRepository.findRedirectByCode("lt000000001");
+            collectionRepository.findDtoByCode("lt000000001");
+        });
+
+        // Then
+        assertThat(readOnly).hasSize(3).containsOnly(true);
+    }
+}
@@ -0,0 +1,170 @@
+package com.fenrir.imagelink.repository;
+
+import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.model.UrlStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exercises the single-statement update and delete queries of {@link ImageRepositoryCustom} and
+ * {@link CollectionRepositoryCustom} against PostgreSQL. Each test rolls back its seed data.
+ * Run with {@code mvn verify -Pintegration-test} against a PostgreSQL instance configured through {@code spring.datasource.*}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ModifyingQueryIT {
+    private static final String LIVE_COLLECTION = "mq000000001";
+    private static final String EXPIRED_COLLECTION = "mq000000002";
+    private static final String LIVE_IMAGE = "mi000000001";
+    private static final String EXPIRED_IMAGE = "mi000000002";
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.update("""
+                INSERT INTO collection (code, life_period, title, created_at, updated_at, expires_at) VALUES
+                    (?, 86400000, 'live', LOCALTIMESTAMP, LOCALTIMESTAMP, LOCALTIMESTAMP + INTERVAL '1 day'),
+                    (?, 1000, 'expired', LOCALTIMESTAMP - INTERVAL '1 day', LOCALTIMESTAMP - INTERVAL '1 day',
+                        LOCALTIMESTAMP - INTERVAL '1 day' + INTERVAL '1 second')
+                """, LIVE_COLLECTION, EXPIRED_COLLECTION);
+        jdbcTemplate.update("""
+                INSERT INTO image (code, original_url, title, created_at, updated_at, collection_id)
+                SELECT i.code, 'http://localhost/' || i.code, 'title', LOCALTIMESTAMP, LOCALTIMESTAMP, c.id
+                FROM (VALUES (?, ?), (?, ?)) AS i(code, collection_code)
+                JOIN collection c ON c.code = i.collection_code
+                """, LIVE_IMAGE, LIVE_COLLECTION, EXPIRED_IMAGE, EXPIRED_COLLECTION);
+    }
+
+    @Test
+    public void givenLiveImage_whenUpdateByCode_thenReturnsUpdatedRowAndCollectionCode() {
+        // When
+        Optional<UpdatedImage> updated = imageRepository.updateByCode(LIVE_IMAGE, "http://localhost/new", "new", null);
+
+        // Then
+        assertThat(updated).hasValueSatisfying(result -> {
+            assertThat(result.getCollectionCode()).isEqualTo(LIVE_COLLECTION);
+            assertThat(result.getImage().getCode()).isEqualTo(LIVE_IMAGE);
+            assertThat(result.getImage().getOriginalUrl()).isEqualTo("http://localhost/new");
+            assertThat(result.getImage().getTitle()).isEqualTo("new");
+            assertThat(result.getImage().getUpdatedAt()).isAfterOrEqualTo(result.getImage().getCreatedAt());
+        });
+    }
+
+    @Test
+    public void givenImageInExpiredCollection_whenUpdateOrDeleteByCode_thenNoRowIsAffected() {
+        // When
+        Optional<UpdatedImage> updated = imageRepository.updateByCode(EXPIRED_IMAGE, "http://localhost/new", "new", null);
+        Optional<String> deleted = imageRepository.deleteByCode(EXPIRED_IMAGE);
+
+        // Then
+        assertThat(updated).isEmpty();
+        assertThat(deleted).isEmpty();
+        assertThat(imageRepository.existsByCode(EXPIRED_IMAGE)).isTrue();
+    }
+
+    @Test
+    public void givenLiveImage_whenDeleteByCode_thenReturnsCollectionCode() {
+        // When
+        Optional<String> deleted = imageRepository.deleteByCode(LIVE_IMAGE);
+
+        // Then
+        assertThat(deleted).contains(LIVE_COLLECTION);
+        assertThat(imageRepository.existsByCode(LIVE_IMAGE)).isFalse();
+    }
+
+    @Test
+    public void givenCurrentOriginalUrl_whenRecordUrlMetadata_thenStoresMetadata() {
+        // Given
+        UrlMetadata metadata = new UrlMetadata(
+                UrlStatus.REACHABLE, 206, "image/png", 12345L, 640, 480, LocalDateTime.of(2022, 1, 1, 12, 0));
+
+        // When
+        boolean recorded = imageRepository.recordUrlMetadata(LIVE_IMAGE, "http://localhost/" + LIVE_IMAGE, metadata);
+
+        // Then
+        assertThat(recorded).isTrue();
+        assertThat(jdbcTemplate.queryForMap("""
+                SELECT url_status, url_http_status, url_content_type, url_content_length, url_image_width, url_image_height
+                FROM image WHERE code = ?
+                """, LIVE_IMAGE))
+                .containsEntry("url_status", "REACHABLE")
+                .containsEntry("url_http_status", 206)
+                .containsEntry("url_content_type", "image/png")
+                .containsEntry("url_content_length", 12345L)
+                .containsEntry("url_image_width", 640)
+                .containsEntry("url_image_height", 480);
+    }
+
+    @Test
+    public void givenChangedOriginalUrl_whenRecordUrlMetadata_thenStaleResultIsIgnored() {
+        // Given
+        UrlMetadata metadata = new UrlMetadata(UrlStatus.BROKEN, 404, null, null, null, null, LocalDateTime.now());
+
+        // When
+        boolean recorded = imageRepository.recordUrlMetadata(LIVE_IMAGE, "http://localhost/previous", metadata);
+
+        // Then
+        assertThat(recorded).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT url_status FROM image WHERE code = ?", String.class, LIVE_IMAGE))
+                .isNull();
+    }
+
+    @Test
+    public void givenLiveCollection_whenUpdateByCode_thenExpiryIsRecomputedFromCreation() {
+        // When
+        Optional<CollectionResponseDto> updated = collectionRepository.updateByCode(LIVE_COLLECTION, 7_200_000L, "new", "d");
+
+        // Then
+        assertThat(updated).hasValueSatisfying(result -> {
+            assertThat(result.getCode()).isEqualTo(LIVE_COLLECTION);
+            assertThat(result.getLifePeriod()).isEqualTo(7_200_000L);
+            assertThat(result.getTitle()).isEqualTo("new");
+            assertThat(result.getDescription()).isEqualTo("d");
+            assertThat(result.getExpiresAt()).isEqualTo(result.getCreatedAt().plus(Duration.ofHours(2)));
+        });
+    }
+
+    @Test
+    public void givenExpiredCollection_whenUpdateOrDeleteByCode_thenNoRowIsAffected() {
+        // When
+        Optional<CollectionResponseDto> updated = collectionRepository.updateByCode(EXPIRED_COLLECTION, 1000L, "new", null);
+        ReapedCollections deleted = collectionRepository.deleteByCodes(List.of(EXPIRED_COLLECTION));
+
+        // Then
+        assertThat(updated).isEmpty();
+        assertThat(deleted.getCollectionCodes()).isEmpty();
+        assertThat(deleted.getImageCodes()).isEmpty();
+    }
+
+    @Test
+    public void givenLiveExpiredAndUnknownCodes_whenDeleteByCodes_thenReturnsLiveCollectionAndImageCodes() {
+        // When
+        ReapedCollections deleted = collectionRepository.deleteByCodes(
+                List.of(LIVE_COLLECTION, EXPIRED_COLLECTION, "mq000000099"));
+
+        // Then
+        assertThat(deleted.getCollectionCodes()).containsExactly(LIVE_COLLECTION);
+        assertThat(deleted.getImageCodes()).containsExactly(LIVE_IMAGE);
+        assertThat(collectionRepository.existsByCode(LIVE_COLLECTION)).isFalse();
+        assertThat(imageRepository.existsByCode(LIVE_IMAGE)).isFalse();
+    }
+}
@@ -0,0 +1,280 @@
+package com.fenrir.imagelink.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts that every query declared on {@link ImageRepository}, {@link CollectionRepository} and {@link ReactiveReadRepository}
+ * is planned without a sequential scan or a full index scan. Statements are captured as Hibernate renders them,
+ * prepared with unknown parameter types and explained as generic plans over a seeded data set,
+ * so the result does not depend on bind values. Each test rolls back its seed data. Run with {@code mvn verify -Pintegration-test}
+ * against a PostgreSQL instance configured through {@code spring.datasource.*}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.fenrir.imagelink.repository.CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanIT {
+    private static final Set<String> COVERED_QUERIES = Set.of(
+            "ImageRepository.findByCode",
+            "ImageRepository.findDtoByCode",
+            "ImageRepository.findRedirectByCode",
+            "ImageRepository.findAllByCollectionCode",
+            "ImageRepository.existsByCode",
+            "ImageRepository.findExistingCodes",
+            "ImageRepository.findPageByCollectionCode",
+            "ImageRepository.findPageByCollectionCodeAfter",
+            "ImageRepository.streamAllByCollectionCode",
+            "CollectionRepository.findByCode",
+            "CollectionRepository.findDtoByCode",
+            "CollectionRepository.existsByCode",
+            "CollectionRepository.findExistingCodes"
+    );
+
+    private static final String CASCADE_DELETE = "DELETE FROM ONLY image WHERE collection_id = $1";
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.update("""
+                INSERT INTO collection (code, life_period, title, created_at, updated_at, expires_at)
+                SELECT 'qp' || lpad(g::text, 9, '0'), 86400000, 'title', now(), now(), now() + g * INTERVAL '1 hour'
+                FROM generate_series(1, 100) g
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO image (code, original_url, title, created_at, updated_at, collection_id)
+                SELECT 'qi' || lpad(g::text, 9, '0'), 'http://localhost/' || g, 'title', now(), now(), c.id
+                FROM generate_series(1, 10000) g
+                JOIN collection c ON c.code = 'qp' || lpad((g % 100 + 1)::text, 9, '0')
+                """);
+        jdbcTemplate.execute("ANALYZE collection, image");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+    }
+
+    @Test
+    public void givenRepositoryInterfaces_whenListingQueryMethods_thenEveryQueryHasPlanAssertion() {
+        // When
+        Set<String> declaredQueries = Stream.of(ImageRepository.class, CollectionRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .map(Method::getName)
+                        .map(name -> repository.getSimpleName() + "." + name))
+                .collect(Collectors.toSet());
+
+        // Then
+        assertThat(COVERED_QUERIES).containsExactlyInAnyOrderElementsOf(declaredQueries);
+    }
+
+    @Test
+    public void givenImageCode_whenFindByCode_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.findByCode("98765432198"));
+    }
+
+    @Test
+    public void givenImageCode_whenFindDtoByCode_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.findDtoByCode("98765432198"));
+    }
+
+    @Test
+    public void givenImageCode_whenFindRedirectByCode_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.findRedirectByCode("98765432198"));
+    }
+
+    @Test
+    public void givenCollectionCode_whenFindAllImagesByCollectionCode_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.findAllByCollectionCode("12345678912"));
+    }
+
+    @Test
+    public void givenImageCode_whenExistsByCode_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.existsByCode("98765432198"));
+    }
+
+    @Test
+    public void givenImageCodes_whenFindExistingCodes_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.findExistingCodes(Set.of("98765432198", "98765432199")));
+    }
+
+    @Test
+    public void givenCollectionCode_whenFindFirstImagePage_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.findPageByCollectionCode("12345678912", PageRequest.ofSize(20)));
+    }
+
+    @Test
+    public void givenCollectionCodeAndCursor_whenFindNextImagePage_thenUsesIndex() {
+        assertNoSeqScan(() -> imageRepository.findPageByCollectionCodeAfter(
+                "12345678912", "98765432198", PageRequest.ofSize(20)));
+    }
+
+    @Test
+    public void givenCollectionCode_whenStreamAllImages_thenUsesIndex() {
+        assertNoSeqScan(() -> {
+            try (Stream<?> images = imageRepository.streamAllByCollectionCode("12345678912")) {
+                images.forEach(image -> { });
+            }
+        });
+    }
+
+    @Test
+    public void givenCollectionCode_whenFindByCode_thenUsesIndex() {
+        assertNoSeqScan(() -> collectionRepository.findByCode("12345678912"));
+    }
+
+    @Test
+    public void givenCollectionCode_whenFindDtoByCode_thenUsesIndex() {
+        assertNoSeqScan(() -> collectionRepository.findDtoByCode("12345678912"));
+    }
+
+    @Test
+    public void givenCollectionCode_whenExistsByCode_thenUsesIndex() {
+        assertNoSeqScan(() -> collectionRepository.existsByCode("12345678912"));
+    }
+
+    @Test
+    public void givenCollectionCodes_whenFindExistingCodes_thenUsesIndex() {
+        assertNoSeqScan(() -> collectionRepository.findExistingCodes(Set.of("12345678912", "12345678913")));
+    }
+
+    @Test
+    public void givenCollectionId_whenCascadingImageDelete_thenUsesIndex() {
+        // The referential action fired by ON DELETE CASCADE runs this statement for every deleted collection.
+        assertThat(unindexedScans(CASCADE_DELETE)).isEmpty();
+    }
+
+    @Test
+    public void givenExpiredCollections_whenDeleteExpired_thenUsesIndex() {
+        assertThat(unindexedScans(toPositionalParameters(CollectionRepositoryCustomImpl.DELETE_EXPIRED_SQL))).isEmpty();
+    }
+
+    @Test
+    public void givenImageCode_whenUpdateByCode_thenUsesIndex() {
+        assertThat(unindexedScans(toPositionalParameters(ImageRepositoryCustomImpl.UPDATE_BY_CODE_SQL))).isEmpty();
+    }
+
+    @Test
+    public void givenImageCode_whenDeleteByCode_thenUsesIndex() {
+        assertThat(unindexedScans(toPositionalParameters(ImageRepositoryCustomImpl.DELETE_BY_CODE_SQL))).isEmpty();
+    }
+
+    @Test
+    public void givenImageCode_whenRecordUrlMetadata_thenUsesIndex() {
+        assertThat(unindexedScans(toPositionalParameters(ImageRepositoryCustomImpl.RECORD_URL_METADATA_SQL))).isEmpty();
+    }
+
+    @Test
+    public void givenCollectionCode_whenUpdateByCode_thenUsesIndex() {
+        assertThat(unindexedScans(toPositionalParameters(CollectionRepositoryCustomImpl.UPDATE_BY_CODE_SQL))).isEmpty();
+    }
+
+    @Test
+    public void givenCollectionCodes_whenDeleteByCodes_thenUsesIndex() {
+        assertThat(unindexedScans(toPositionalParameters(CollectionRepositoryCustomImpl.DELETE_BY_CODES_SQL))).isEmpty();
+    }
+
+    @Test
+    public void givenImageCode_whenReactiveFindImageByCode_thenUsesIndex() {
+        assertThat(unindexedScans(ReactiveReadRepository.FIND_IMAGE_BY_CODE_SQL)).isEmpty();
+    }
+
+    @Test
+    public void givenCollectionCode_whenReactiveFindCollectionByCode_thenUsesIndex() {
+        assertThat(unindexedScans(ReactiveReadRepository.FIND_COLLECTION_BY_CODE_SQL)).isEmpty();
+    }
+
+    @Test
+    public void givenCollectionCode_whenReactiveFindImagesByCollectionCode_thenUsesIndex() {
+        assertThat(unindexedScans(ReactiveReadRepository.FIND_IMAGES_BY_COLLECTION_CODE_SQL)).isEmpty();
+    }
+
+    private void assertNoSeqScan(Runnable query) {
+        List<String> statements = CapturingStatementInspector.capture(query);
+
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            assertThat(unindexedScans(toPositionalParameters(sql)))
+                    .as("unindexed scans in plan of: %s", sql)
+                    .isEmpty();
+        }
+    }
+
+    private List<String> unindexedScans(String sql) {
+        jdbcTemplate.execute("PREPARE query_plan AS " + sql);
+        try {
+            int parameterCount = jdbcTemplate.queryForObject(
+                    "SELECT cardinality(parameter_types) FROM pg_prepared_statements WHERE name = 'query_plan'",
+                    Integer.class);
+            String arguments = parameterCount == 0
+                    ? ""
+                    : "(" + String.join(", ", Collections.nCopies(parameterCount, "NULL")) + ")";
+            String plan = jdbcTemplate.queryForObject(
+                    "EXPLAIN (FORMAT JSON) EXECUTE query_plan" + arguments, String.class);
+
+            List<String> scans = new ArrayList<>();
+            collectUnindexedScans(readPlan(plan), scans);
+            return scans;
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE query_plan");
+        }
+    }
+
+    private JsonNode readPlan(String plan) {
+        try {
+            return objectMapper.readTree(plan).get(0).get("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+    }
+
+    private void collectUnindexedScans(JsonNode node, List<String> scans) {
+        String nodeType = node.path("Node Type").asText();
+        boolean fullIndexScan = nodeType.startsWith("Index") && !node.has("Index Cond");
+        if ("Seq Scan".equals(nodeType) || fullIndexScan) {
+            scans.add(nodeType + " on " + node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectUnindexedScans(child, scans);
+        }
+    }
+
+    private static String toPositionalParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 8);
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                result.append('$').append(++index);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
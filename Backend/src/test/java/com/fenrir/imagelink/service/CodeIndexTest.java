@@ -0,0 +1,161 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.CodeIndexProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class CodeIndexTest {
+    @Mock
+    private DataSource dataSource;
+
+    private CodeIndex codeIndex;
+
+    private final String storedCode = Codes.decode(42L);
+    private final String missingCode = Codes.decode(43L);
+
+    @BeforeEach
+    public void setup() {
+        codeIndex = builtIndex(CodeIndexProperties.Type.EXACT);
+    }
+
+    static CodeIndex unbuiltIndex() {
+        CodeIndexProperties properties = new CodeIndexProperties();
+        properties.setEnabled(false);
+        return new CodeIndex(properties, null, null);
+    }
+
+    private CodeIndex builtIndex(CodeIndexProperties.Type type) {
+        CodeIndexProperties properties = new CodeIndexProperties();
+        properties.setEnabled(true);
+        properties.setType(type);
+        properties.setExpectedSize(16);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public void query(PreparedStatementCreator statementCreator, RowCallbackHandler rowCallbackHandler) {
+            }
+        };
+        return new CodeIndex(properties, jdbcTemplate, TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    public void givenIndexNotBuilt_whenIsImageAbsent_thenReturnFalse() {
+        // When
+        boolean absent = codeIndex.isImageAbsent(missingCode);
+
+        // Then
+        assertThat(absent).isFalse();
+        assertThat(codeIndex.isReady()).isFalse();
+    }
+
+    @Test
+    public void givenBuiltIndex_whenIsImageAbsent_thenReturnTrueOnlyForUnknownCodes() {
+        // Given
+        codeIndex.imageAdded(storedCode);
+        codeIndex.build();
+
+        // When
+        boolean storedAbsent = codeIndex.isImageAbsent(storedCode);
+        boolean missingAbsent = codeIndex.isImageAbsent(missingCode);
+
+        // Then
+        assertThat(storedAbsent).isFalse();
+        assertThat(missingAbsent).isTrue();
+        assertThat(codeIndex.isCollectionAbsent(storedCode)).isTrue();
+    }
+
+    @Test
+    public void givenBuiltIndex_whenCodeIsNotEncodable_thenNeverReportAbsent() {
+        // Given
+        codeIndex.build();
+
+        // When
+        boolean absent = codeIndex.isCollectionAbsent("ABCDEF");
+
+        // Then
+        assertThat(absent).isFalse();
+    }
+
+    @Test
+    public void givenIndexedImages_whenImagesRemoved_thenReportAbsent() {
+        // Given
+        codeIndex.imageAdded(storedCode);
+        codeIndex.build();
+
+        // When
+        codeIndex.imagesRemoved(List.of(storedCode));
+
+        // Then
+        assertThat(codeIndex.isImageAbsent(storedCode)).isTrue();
+        assertThat(codeIndex.imageCount()).isZero();
+    }
+
+    @Test
+    public void givenBloomIndex_whenImagesRemoved_thenKeepReportingPresent() {
+        // Given
+        codeIndex = builtIndex(CodeIndexProperties.Type.BLOOM);
+        codeIndex.imageAdded(storedCode);
+        codeIndex.build();
+
+        // When
+        codeIndex.imagesRemoved(List.of(storedCode));
+
+        // Then
+        assertThat(codeIndex.isImageAbsent(storedCode)).isFalse();
+        assertThat(codeIndex.isImageAbsent(missingCode)).isTrue();
+    }
+
+    @Test
+    public void givenBuiltIndex_whenLookupMissesDatabase_thenCountFalsePositive() {
+        // Given
+        codeIndex.imageAdded(storedCode);
+        codeIndex.build();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        codeIndex.bindTo(registry);
+
+        // When
+        Optional<String> stale = codeIndex.findImage(storedCode, code -> Optional.empty());
+        Optional<String> missing = codeIndex.findImage(missingCode, code -> Optional.of(code));
+
+        // Then
+        assertThat(stale).isEmpty();
+        assertThat(missing).isEmpty();
+        assertThat(codeIndex.imageFalsePositiveRate()).isEqualTo(0.5);
+        assertThat(registry.get("imagelink.code.index.false.positive.rate").tag("kind", "image").gauge().value())
+                .isEqualTo(0.5);
+        assertThat(registry.get("imagelink.code.index.lookups").tags("kind", "image", "result", "absent")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenBuiltIndex_whenExistingImages_thenQueryOnlyCodesNotProvenAbsent() {
+        // Given
+        codeIndex.imageAdded(storedCode);
+        codeIndex.build();
+
+        // When
+        List<String> existing = codeIndex.existingImages(Set.of(storedCode, missingCode), codes -> {
+            assertThat(codes).containsExactly(storedCode);
+            return List.of(storedCode);
+        });
+
+        // Then
+        assertThat(existing).containsExactly(storedCode);
+        assertThat(codeIndex.imageFalsePositiveRate()).isZero();
+    }
+}
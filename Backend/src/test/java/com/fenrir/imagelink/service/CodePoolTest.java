@@ -0,0 +1,137 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.CodePoolProperties;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CodePoolTest {
+    @Mock
+    private RandomStringService randomStringService;
+
+    @Mock
+    private CollectionRepository collectionRepository;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    private CodePoolProperties properties;
+    private CodeGenerationMetrics codeGenerationMetrics;
+    private CodePool codePool;
+
+    @BeforeEach
+    public void setup() {
+        properties = new CodePoolProperties();
+        properties.setCapacity(4);
+        properties.setBatchSize(2);
+        codeGenerationMetrics = new CodeGenerationMetrics();
+        codePool = new CodePool(randomStringService, collectionRepository, imageRepository, properties, codeGenerationMetrics);
+    }
+
+    @Test
+    public void givenEmptyPool_whenPollCollectionCode_thenReturnEmpty() {
+        // When
+        Optional<String> code = codePool.pollCollectionCode();
+
+        // Then
+        assertThat(code).isEmpty();
+    }
+
+    @Test
+    public void givenUnusedCodes_whenRefill_thenPoolsAreFilledToCapacity() {
+        // Given
+        given(randomStringService.generate(11))
+                .willReturn("AAAAAAAAAAA", "BBBBBBBBBBB", "CCCCCCCCCCC", "DDDDDDDDDDD")
+                .willReturn("EEEEEEEEEEE", "FFFFFFFFFFF", "GGGGGGGGGGG", "HHHHHHHHHHH");
+        given(collectionRepository.findExistingCodes(any()))
+                .willReturn(Collections.emptyList());
+        given(imageRepository.findExistingCodes(any()))
+                .willReturn(Collections.emptyList());
+
+        // When
+        codePool.refill();
+
+        // Then
+        assertThat(codePool.collectionCodesAvailable()).isEqualTo(4);
+        assertThat(codePool.imageCodesAvailable()).isEqualTo(4);
+        assertThat(drain(codePool::pollCollectionCode))
+                .containsExactlyInAnyOrder("AAAAAAAAAAA", "BBBBBBBBBBB", "CCCCCCCCCCC", "DDDDDDDDDDD");
+        assertThat(drain(codePool::pollImageCode))
+                .containsExactlyInAnyOrder("EEEEEEEEEEE", "FFFFFFFFFFF", "GGGGGGGGGGG", "HHHHHHHHHHH");
+    }
+
+    @Test
+    public void givenExistingCodes_whenRefill_thenExistingCodesAreNotPooled() {
+        // Given
+        properties.setCapacity(2);
+        given(randomStringService.generate(11))
+                .willReturn("AAAAAAAAAAA", "BBBBBBBBBBB", "CCCCCCCCCCC", "DDDDDDDDDDD");
+        given(collectionRepository.findExistingCodes(Set.of("AAAAAAAAAAA", "BBBBBBBBBBB")))
+                .willReturn(List.of("BBBBBBBBBBB"));
+        given(imageRepository.findExistingCodes(any()))
+                .willReturn(Collections.emptyList());
+
+        // When
+        codePool.refill();
+
+        // Then
+        assertThat(drain(codePool::pollCollectionCode)).containsExactly("AAAAAAAAAAA");
+        assertThat(codeGenerationMetrics.collections().attempts()).isEqualTo(2);
+        assertThat(codeGenerationMetrics.collections().collisions()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenFullPool_whenRefill_thenNoCodesAreGenerated() {
+        // Given
+        properties.setCapacity(0);
+
+        // When
+        codePool.refill();
+
+        // Then
+        verify(randomStringService, never()).generate(anyInt());
+        verifyNoInteractions(collectionRepository, imageRepository);
+    }
+
+    @Test
+    public void givenDisabledPool_whenRefill_thenNothing() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        codePool.refill();
+
+        // Then
+        verifyNoInteractions(randomStringService, collectionRepository, imageRepository);
+        assertThat(codePool.pollCollectionCode()).isEmpty();
+    }
+
+    private static List<String> drain(Supplier<Optional<String>> poll) {
+        List<String> codes = new ArrayList<>();
+        Optional<String> code;
+        while ((code = poll.get()).isPresent()) {
+            codes.add(code.get());
+        }
+        return codes;
+    }
+}
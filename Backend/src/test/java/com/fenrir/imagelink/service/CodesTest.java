@@ -0,0 +1,51 @@
+package com.fenrir.imagelink.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodesTest {
+
+    @Test
+    public void givenGeneratedCode_whenEncode_thenReturnLongOfItsBase64UrlBytes() {
+        // Given
+        String code = new RandomStringService().generate(Codes.LENGTH);
+
+        // When
+        long encoded = Codes.encode(code);
+
+        // Then
+        assertThat(encoded).isEqualTo(ByteBuffer.wrap(Base64.getUrlDecoder().decode(code)).getLong());
+        assertThat(Codes.decode(encoded)).isEqualTo(code);
+    }
+
+    @Test
+    public void givenAnyLong_whenDecode_thenEncodeReturnsSameLong() {
+        for (int i = 0; i < 1000; i++) {
+            // Given
+            long value = ThreadLocalRandom.current().nextLong();
+
+            // When
+            String code = Codes.decode(value);
+
+            // Then
+            assertThat(Codes.isEncodable(code)).isTrue();
+            assertThat(Codes.encode(code)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void givenMalformedCodes_whenIsEncodable_thenReturnFalse() {
+        assertThat(Codes.isEncodable(null)).isFalse();
+        assertThat(Codes.isEncodable("ABCDEF")).isFalse();
+        assertThat(Codes.isEncodable("ABCDEFGHIJ+")).isFalse();
+        assertThat(Codes.isEncodable("ABCDEFGHIJB")).isFalse();
+        assertThat(Codes.isEncodable("ABCDEFGHIJÄ")).isFalse();
+        assertThatThrownBy(() -> Codes.encode("ABCDEFGHIJB")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.BulkDeleteProperties;
+import com.fenrir.imagelink.dto.CollectionDeleteResultDto;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ReapedCollections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionBulkDeleteServiceTest {
+    @Mock
+    private CollectionRepository collectionRepository;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    private CodeIndex codeIndex;
+    private CollectionBulkDeleteService collectionBulkDeleteService;
+
+    @BeforeEach
+    public void setup() {
+        BulkDeleteProperties properties = new BulkDeleteProperties();
+        properties.setChunkSize(2);
+        codeIndex = spy(CodeIndexTest.unbuiltIndex());
+        collectionBulkDeleteService = new CollectionBulkDeleteService(
+                collectionRepository, cacheInvalidator, TransactionOperations.withoutTransaction(), properties, codeIndex);
+    }
+
+    @Test
+    public void givenCodes_whenDeleteCollections_thenDeleteSortedDistinctChunksAndReportCounts() {
+        // Given
+        given(collectionRepository.deleteByCodes(List.of("AAAAAAAAAAA", "BBBBBBBBBBB")))
+                .willReturn(new ReapedCollections(List.of("AAAAAAAAAAA", "BBBBBBBBBBB"), List.of("IIIIIIIIIII")));
+        given(collectionRepository.deleteByCodes(List.of("CCCCCCCCCCC")))
+                .willReturn(new ReapedCollections(Collections.emptyList(), Collections.emptyList()));
+
+        // When
+        CollectionDeleteResultDto result = collectionBulkDeleteService.deleteCollections(
+                List.of("CCCCCCCCCCC", "BBBBBBBBBBB", "AAAAAAAAAAA", "BBBBBBBBBBB"));
+
+        // Then
+        assertThat(result).isEqualTo(new CollectionDeleteResultDto(3, 2, 1));
+        verify(cacheInvalidator).evictCollection("AAAAAAAAAAA");
+        verify(cacheInvalidator).evictCollection("BBBBBBBBBBB");
+        verify(cacheInvalidator).evictImages(List.of("IIIIIIIIIII"));
+        verify(codeIndex).collectionRemoved("AAAAAAAAAAA");
+        verify(codeIndex).collectionRemoved("BBBBBBBBBBB");
+        verify(codeIndex).imagesRemoved(List.of("IIIIIIIIIII"));
+    }
+
+    @Test
+    public void givenCodesAbsentFromIndex_whenDeleteCollections_thenSkipRepository() {
+        // Given
+        given(codeIndex.isCollectionAbsent("AAAAAAAAAAA")).willReturn(true);
+
+        // When
+        CollectionDeleteResultDto result = collectionBulkDeleteService.deleteCollections(List.of("AAAAAAAAAAA"));
+
+        // Then
+        assertThat(result).isEqualTo(new CollectionDeleteResultDto(1, 0, 0));
+        verifyNoInteractions(collectionRepository, cacheInvalidator);
+    }
+}
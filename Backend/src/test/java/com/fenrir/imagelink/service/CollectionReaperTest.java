@@ -0,0 +1,87 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.ExpiryProperties;
+import com.fenrir.imagelink.repository.CollectionRepository;
+import com.fenrir.imagelink.repository.ReapedCollections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionReaperTest {
+    @Mock
+    private CollectionRepository collectionRepository;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CodeIndex codeIndex;
+
+    private ExpiryProperties properties;
+    private CollectionReaper collectionReaper;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ExpiryProperties();
+        properties.setBatchSize(2);
+        properties.setMaxBatchesPerRun(3);
+        collectionReaper = new CollectionReaper(
+                collectionRepository, cacheInvalidator, TransactionOperations.withoutTransaction(), properties, codeIndex);
+    }
+
+    @Test
+    public void givenExpiredCollections_whenReap_thenDeleteInBatchesUntilShortBatch() {
+        // Given
+        given(collectionRepository.deleteExpired(2))
+                .willReturn(new ReapedCollections(List.of("AAAAAAAAAAA", "BBBBBBBBBBB"), List.of("CCCCCCCCCCC")))
+                .willReturn(new ReapedCollections(List.of("DDDDDDDDDDD"), Collections.emptyList()));
+
+        // When
+        collectionReaper.reap();
+
+        // Then
+        verify(collectionRepository, times(2)).deleteExpired(2);
+        verify(cacheInvalidator).evictCollection("AAAAAAAAAAA");
+        verify(cacheInvalidator).evictCollection("BBBBBBBBBBB");
+        verify(cacheInvalidator).evictCollection("DDDDDDDDDDD");
+        verify(cacheInvalidator).evictImages(List.of("CCCCCCCCCCC"));
+    }
+
+    @Test
+    public void givenBacklogLargerThanRun_whenReap_thenStopAfterMaxBatches() {
+        // Given
+        given(collectionRepository.deleteExpired(anyInt()))
+                .willReturn(new ReapedCollections(List.of("AAAAAAAAAAA", "BBBBBBBBBBB"), Collections.emptyList()));
+
+        // When
+        collectionReaper.reap();
+
+        // Then
+        verify(collectionRepository, times(3)).deleteExpired(2);
+    }
+
+    @Test
+    public void givenDisabledExpiry_whenReap_thenNothing() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        collectionReaper.reap();
+
+        // Then
+        verifyNoInteractions(collectionRepository, cacheInvalidator);
+    }
+}
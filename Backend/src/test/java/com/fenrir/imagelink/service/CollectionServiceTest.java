@@ -1,42 +1,73 @@
 package com.fenrir.imagelink.service;
 
+import com.fenrir.imagelink.config.CodeGenerationProperties;
+import com.fenrir.imagelink.config.ReplicaProperties;
 import com.fenrir.imagelink.dto.CollectionRequestDto;
 import com.fenrir.imagelink.dto.CollectionResponseDto;
+import com.fenrir.imagelink.dto.ImageBatchResultDto;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
 import com.fenrir.imagelink.dto.mapper.CollectionMapper;
 import com.fenrir.imagelink.dto.mapper.ImageMapper;
 import com.fenrir.imagelink.exception.CodeGenerationException;
 import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.exception.message.ConstraintViolationInfo;
 import com.fenrir.imagelink.model.Collection;
 import com.fenrir.imagelink.model.Image;
 import com.fenrir.imagelink.repository.CollectionRepository;
 import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.repository.ReapedCollections;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class CollectionServiceTest {
     @Mock
     private RandomStringService randomStringService;
 
+    @Mock
+    private CodePool codePool;
+
+    @Spy
+    private CodeGenerationProperties codeGenerationProperties = new CodeGenerationProperties();
+
     @Mock
     private CollectionRepository collectionRepository;
 
@@ -49,6 +80,27 @@ class CollectionServiceTest {
     @Mock
     private ImageMapper imageMapper;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Spy
+    private CodeIndex codeIndex = CodeIndexTest.unbuiltIndex();
+
+    @Spy
+    private CodeGenerationMetrics codeGenerationMetrics = new CodeGenerationMetrics();
+
+    @Mock
+    private UrlValidationWorker urlValidationWorker;
+
+    @Spy
+    private LookupCoalescer lookupCoalescer = new LookupCoalescer();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(new ReplicaProperties());
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private CollectionService collectionService;
 
@@ -116,10 +168,8 @@ class CollectionServiceTest {
     @Test
     public void givenExistingCode_whenGetCollection_thenReturnCollectionResponseDtoObject() {
         // Given
-        given(collectionRepository.findByCode(collection.getCode()))
-                .willReturn(Optional.of(collection));
-        given(collectionMapper.toDto(collection))
-                .willReturn(collectionResponseDto);
+        given(collectionRepository.findDtoByCode(collection.getCode()))
+                .willReturn(Optional.of(collectionResponseDto));
 
         // When
         CollectionResponseDto actualCollectionResponseDto = collectionService.getCollection(collection.getCode());
@@ -134,7 +184,7 @@ class CollectionServiceTest {
     public void givenNoExistingCode_whenGetCollection_thenThrowsException() {
         // Given
         String code = "12345678912";
-        given(collectionRepository.findByCode(any()))
+        given(collectionRepository.findDtoByCode(any()))
                 .willReturn(Optional.empty());
 
         // Then
@@ -143,15 +193,49 @@ class CollectionServiceTest {
                 .hasMessage(String.format("Collection was not found for code = %s", code));
     }
 
+    @Test
+    public void givenConcurrentMissesForUnknownCode_whenGetCollection_thenQueryRepositoryOnce() throws Exception {
+        // Given
+        int callers = 8;
+        String code = "12345678912";
+        CountDownLatch queryRelease = new CountDownLatch(1);
+        given(collectionRepository.findDtoByCode(code)).willAnswer(invocation -> {
+            queryRelease.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        lookupCoalescer.bindTo(registry);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<CollectionResponseDto>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> collectionService.getCollection(code)));
+            }
+            while (registry.get("imagelink.lookup.coalesced").tag("kind", "collection").functionCounter().count() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            queryRelease.countDown();
+
+            // Then
+            for (Future<CollectionResponseDto> result : results) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(ResourceNotFoundException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(collectionRepository, times(1)).findDtoByCode(code);
+    }
+
     @Test
     public void givenExistingCollectionCode_whenGetAllImagesByCollectionCode_thenReturnImageResponseDtoList() {
         // Given
-        List<Image> images = List.of(image);
         List<ImageResponseDto> imageResponseDtos = List.of(imageResponseDto);
 
         given(imageRepository.findAllByCollectionCode(collection.getCode()))
-                .willReturn(images);
-        given(imageMapper.toDto(images))
                 .willReturn(imageResponseDtos);
 
         // When
@@ -166,11 +250,7 @@ class CollectionServiceTest {
     @Test
     public void givenNoExistingCollectionCode_whenGetAllImagesByCollectionCode_thenReturnEmptyList() {
         // Given
-        List<Image> images = Collections.emptyList();
-
         given(imageRepository.findAllByCollectionCode(any()))
-                .willReturn(images);
-        given(imageMapper.toDto(images))
                 .willReturn(Collections.emptyList());
 
         // When
@@ -180,6 +260,85 @@ class CollectionServiceTest {
         assertThat(actualImageResponseDtos).isEmpty();
     }
 
+    @Test
+    public void givenNoCursor_whenGetImagesPageByCollectionCode_thenReturnFirstPage() {
+        // Given
+        List<ImageResponseDto> imageResponseDtos = List.of(imageResponseDto);
+
+        given(imageRepository.findPageByCollectionCode(collection.getCode(), PageRequest.ofSize(10)))
+                .willReturn(imageResponseDtos);
+
+        // When
+        List<ImageResponseDto> actualImageResponseDtos = collectionService.getImagesPageByCollectionCode(collection.getCode(), null, 10);
+
+        // Then
+        assertThat(actualImageResponseDtos).isEqualTo(imageResponseDtos);
+        verify(imageRepository, never()).findPageByCollectionCodeAfter(any(), any(), any());
+    }
+
+    @Test
+    public void givenCursor_whenGetImagesPageByCollectionCode_thenReturnPageAfterCursor() {
+        // Given
+        String after = "11111111111";
+        List<ImageResponseDto> imageResponseDtos = List.of(imageResponseDto);
+
+        given(imageRepository.findPageByCollectionCodeAfter(collection.getCode(), after, PageRequest.ofSize(10)))
+                .willReturn(imageResponseDtos);
+
+        // When
+        List<ImageResponseDto> actualImageResponseDtos = collectionService.getImagesPageByCollectionCode(collection.getCode(), after, 10);
+
+        // Then
+        assertThat(actualImageResponseDtos).isEqualTo(imageResponseDtos);
+        verify(imageRepository, never()).findPageByCollectionCode(any(), any());
+    }
+
+    @Test
+    public void givenUnknownCursor_whenGetImagesPageByCollectionCode_thenThrowResourceNotFoundException() {
+        // Given
+        String after = "11111111111";
+
+        given(imageRepository.findPageByCollectionCodeAfter(collection.getCode(), after, PageRequest.ofSize(10)))
+                .willReturn(List.of());
+        given(imageRepository.existsByCode(after)).willReturn(false);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> collectionService.getImagesPageByCollectionCode(collection.getCode(), after, 10))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Cursor image was not found for code = 11111111111");
+    }
+
+    @Test
+    public void givenLastImageAsCursor_whenGetImagesPageByCollectionCode_thenReturnEmptyPage() {
+        // Given
+        String after = "11111111111";
+
+        given(imageRepository.findPageByCollectionCodeAfter(collection.getCode(), after, PageRequest.ofSize(10)))
+                .willReturn(List.of());
+        given(imageRepository.existsByCode(after)).willReturn(true);
+
+        // When
+        List<ImageResponseDto> actualImageResponseDtos = collectionService.getImagesPageByCollectionCode(collection.getCode(), after, 10);
+
+        // Then
+        assertThat(actualImageResponseDtos).isEmpty();
+    }
+
+    @Test
+    public void givenExistingCollectionCode_whenStreamAllImagesByCollectionCode_thenPassEachImageToConsumer() {
+        // Given
+        given(imageRepository.streamAllByCollectionCode(collection.getCode()))
+                .willReturn(Stream.of(imageResponseDto));
+        List<ImageResponseDto> consumed = new ArrayList<>();
+
+        // When
+        collectionService.streamAllImagesByCollectionCode(collection.getCode(), consumed::add);
+
+        // Then
+        assertThat(consumed).containsExactly(imageResponseDto);
+    }
+
     @Test
     public void givenCollectionRequestObject_whenSaveCollection_thenReturnCollectionResponseDto() {
         // Given
@@ -195,12 +354,38 @@ class CollectionServiceTest {
                 .willReturn(collectionResponseDto);
 
         // When
+        LocalDateTime before = LocalDateTime.now();
         CollectionResponseDto actualCollectionResponseDto = collectionService.saveCollection(collectionRequestDto);
 
         // Then
         assertThat(actualCollectionResponseDto)
                 .isNotNull()
                 .isEqualTo(collectionResponseDto);
+        assertThat(collection.getExpiresAt())
+                .isAfterOrEqualTo(before.plus(Duration.ofMillis(collection.getLifePeriod())));
+    }
+
+    @Test
+    public void givenPooledCode_whenSaveCollection_thenSkipCodeExistenceCheck() {
+        // Given
+        given(collectionMapper.fromDto(collectionRequestDto))
+                .willReturn(collection);
+        given(codePool.pollCollectionCode())
+                .willReturn(Optional.of("12345678912"));
+        given(collectionRepository.save(collection))
+                .willReturn(collection);
+        given(collectionMapper.toDto(collection))
+                .willReturn(collectionResponseDto);
+
+        // When
+        CollectionResponseDto actualCollectionResponseDto = collectionService.saveCollection(collectionRequestDto);
+
+        // Then
+        assertThat(actualCollectionResponseDto)
+                .isNotNull()
+                .isEqualTo(collectionResponseDto);
+        verify(collectionRepository, never()).existsByCode(any());
+        verify(randomStringService, never()).generate(anyInt());
     }
 
     @Test
@@ -217,6 +402,76 @@ class CollectionServiceTest {
         assertThatThrownBy(() -> collectionService.saveCollection(collectionRequestDto))
                 .isInstanceOf(CodeGenerationException.class)
                 .hasMessage("Failed to generate code");
+        assertThat(codeGenerationMetrics.collections().attempts()).isEqualTo(10);
+        assertThat(codeGenerationMetrics.collections().collisions()).isEqualTo(10);
+        assertThat(codeGenerationMetrics.collections().failures()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenOptimisticStrategy_whenSaveCollection_thenInsertWithoutCodeExistenceCheck() {
+        // Given
+        codeGenerationProperties.setStrategy(CodeGenerationProperties.Strategy.OPTIMISTIC);
+        given(collectionMapper.fromDto(collectionRequestDto))
+                .willReturn(collection);
+        given(randomStringService.generate(11))
+                .willReturn("12345678912");
+        given(collectionRepository.tryInsert(collection))
+                .willReturn(true);
+        given(collectionMapper.toDto(collection))
+                .willReturn(collectionResponseDto);
+
+        // When
+        CollectionResponseDto actualCollectionResponseDto = collectionService.saveCollection(collectionRequestDto);
+
+        // Then
+        assertThat(actualCollectionResponseDto)
+                .isNotNull()
+                .isEqualTo(collectionResponseDto);
+        verify(collectionRepository, never()).existsByCode(any());
+        verify(collectionRepository, never()).save(any());
+    }
+
+    @Test
+    public void givenOptimisticStrategyAndTakenCode_whenSaveCollection_thenRetryWithNewCode() {
+        // Given
+        codeGenerationProperties.setStrategy(CodeGenerationProperties.Strategy.OPTIMISTIC);
+        given(collectionMapper.fromDto(collectionRequestDto))
+                .willReturn(collection);
+        given(codePool.pollCollectionCode())
+                .willReturn(Optional.of("AAAAAAAAAAA"));
+        given(randomStringService.generate(11))
+                .willReturn("12345678912");
+        given(collectionRepository.tryInsert(collection))
+                .willReturn(false, true);
+        given(collectionMapper.toDto(collection))
+                .willReturn(collectionResponseDto);
+
+        // When
+        collectionService.saveCollection(collectionRequestDto);
+
+        // Then
+        assertThat(collection.getCode()).isEqualTo("12345678912");
+        verify(collectionRepository, times(2)).tryInsert(collection);
+    }
+
+    @Test
+    public void givenOptimisticStrategyAndAlwaysTakenCode_whenSaveCollection_thenThrowsException() {
+        // Given
+        codeGenerationProperties.setStrategy(CodeGenerationProperties.Strategy.OPTIMISTIC);
+        given(collectionMapper.fromDto(collectionRequestDto))
+                .willReturn(collection);
+        given(randomStringService.generate(11))
+                .willReturn("12345678912");
+        given(collectionRepository.tryInsert(collection))
+                .willReturn(false);
+
+        // Then
+        assertThatThrownBy(() -> collectionService.saveCollection(collectionRequestDto))
+                .isInstanceOf(CodeGenerationException.class)
+                .hasMessage("Failed to generate code");
+        verify(collectionRepository, times(10)).tryInsert(collection);
+        assertThat(codeGenerationMetrics.collections().collisions()).isEqualTo(10);
+        assertThat(codeGenerationMetrics.collections().failures()).isEqualTo(1);
     }
 
     @Test
@@ -242,6 +497,138 @@ class CollectionServiceTest {
         assertThat(actualImageResponseDto)
                 .isNotNull()
                 .isEqualTo(imageResponseDto);
+        verify(urlValidationWorker, times(1)).enqueue("98765432198", image.getOriginalUrl());
+    }
+
+    @Test
+    public void givenPooledCode_whenSaveImage_thenSkipCodeExistenceCheck() {
+        // Given
+        given(collectionRepository.findByCode(collection.getCode()))
+                .willReturn(Optional.of(collection));
+        given(imageMapper.fromDto(imageRequestDto))
+                .willReturn(image);
+        given(codePool.pollImageCode())
+                .willReturn(Optional.of("98765432198"));
+        given(imageRepository.save(image))
+                .willReturn(image);
+        given(imageMapper.toDto(image))
+                .willReturn(imageResponseDto);
+
+        // When
+        ImageResponseDto actualImageResponseDto = collectionService.saveImage(collection.getCode(), imageRequestDto);
+
+        // Then
+        assertThat(actualImageResponseDto)
+                .isNotNull()
+                .isEqualTo(imageResponseDto);
+        verify(imageRepository, never()).existsByCode(any());
+        verify(randomStringService, never()).generate(anyInt());
+    }
+
+    @Test
+    public void givenOptimisticStrategy_whenSaveImage_thenInsertWithoutCodeExistenceCheck() {
+        // Given
+        codeGenerationProperties.setStrategy(CodeGenerationProperties.Strategy.OPTIMISTIC);
+        given(collectionRepository.findByCode(collection.getCode()))
+                .willReturn(Optional.of(collection));
+        given(imageMapper.fromDto(imageRequestDto))
+                .willReturn(image);
+        given(randomStringService.generate(11))
+                .willReturn("98765432198");
+        given(imageRepository.tryInsert(image))
+                .willReturn(true);
+        given(imageMapper.toDto(image))
+                .willReturn(imageResponseDto);
+
+        // When
+        ImageResponseDto actualImageResponseDto = collectionService.saveImage(collection.getCode(), imageRequestDto);
+
+        // Then
+        assertThat(actualImageResponseDto)
+                .isNotNull()
+                .isEqualTo(imageResponseDto);
+        assertThat(image.getCollection()).isEqualTo(collection);
+        verify(imageRepository, never()).existsByCode(any());
+        verify(imageRepository, never()).save(any());
+    }
+
+    @Test
+    public void givenValidImageRequests_whenSaveImages_thenInsertAllInOneBatch() {
+        // Given
+        Image secondImage = Image.builder()
+                .id(2L)
+                .originalUrl("url2")
+                .title("title 2")
+                .build();
+        ImageRequestDto secondImageRequestDto = ImageRequestDto.builder()
+                .originalUrl("http://localhost/image2.png")
+                .title("title 2")
+                .build();
+        imageRequestDto.setOriginalUrl("http://localhost/image1.png");
+
+        given(collectionRepository.findByCode(collection.getCode()))
+                .willReturn(Optional.of(collection));
+        given(codePool.pollImageCode())
+                .willReturn(Optional.of("11111111111"), Optional.empty());
+        given(randomStringService.generate(11))
+                .willReturn("22222222222");
+        given(imageRepository.findExistingCodes(Set.of("22222222222")))
+                .willReturn(Collections.emptyList());
+        given(imageMapper.fromDto(imageRequestDto))
+                .willReturn(image);
+        given(imageMapper.fromDto(secondImageRequestDto))
+                .willReturn(secondImage);
+        given(imageMapper.toDto(any(Image.class)))
+                .willReturn(imageResponseDto);
+
+        // When
+        List<ImageBatchResultDto> results = collectionService.saveImages(
+                collection.getCode(), List.of(imageRequestDto, secondImageRequestDto));
+
+        // Then
+        assertThat(results)
+                .extracting(ImageBatchResultDto::getStatus)
+                .containsExactly(201, 201);
+        assertThat(image.getCode()).isEqualTo("11111111111");
+        assertThat(secondImage.getCode()).isEqualTo("22222222222");
+        assertThat(secondImage.getCollection()).isEqualTo(collection);
+        verify(imageRepository, times(1)).insertAll(List.of(image, secondImage));
+        verify(imageRepository, never()).save(any());
+        verify(cacheInvalidator, times(1)).evictCollectionImages(collection.getCode());
+        verify(urlValidationWorker, times(1)).enqueue("11111111111", image.getOriginalUrl());
+        verify(urlValidationWorker, times(1)).enqueue("22222222222", secondImage.getOriginalUrl());
+    }
+
+    @Test
+    public void givenInvalidImageRequest_whenSaveImages_thenReportItAndInsertTheRest() {
+        // Given
+        ImageRequestDto invalidImageRequestDto = ImageRequestDto.builder()
+                .originalUrl("not an url")
+                .build();
+        imageRequestDto.setOriginalUrl("http://localhost/image1.png");
+
+        given(collectionRepository.findByCode(collection.getCode()))
+                .willReturn(Optional.of(collection));
+        given(codePool.pollImageCode())
+                .willReturn(Optional.of("11111111111"));
+        given(imageMapper.fromDto(imageRequestDto))
+                .willReturn(image);
+        given(imageMapper.toDto(image))
+                .willReturn(imageResponseDto);
+
+        // When
+        List<ImageBatchResultDto> results = collectionService.saveImages(
+                collection.getCode(), List.of(invalidImageRequestDto, imageRequestDto));
+
+        // Then
+        assertThat(results)
+                .extracting(ImageBatchResultDto::getIndex, ImageBatchResultDto::getStatus)
+                .containsExactly(tuple(0, 409), tuple(1, 201));
+        assertThat(results.get(0).getErrors())
+                .extracting(ConstraintViolationInfo::getPropertyName)
+                .containsExactlyInAnyOrder("originalUrl", "title");
+        assertThat(results.get(1).getImage()).isEqualTo(imageResponseDto);
+        verify(imageRepository, times(1)).insertAll(List.of(image));
     }
 
     @Test
@@ -252,7 +639,7 @@ class CollectionServiceTest {
                 .willReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> collectionService.getCollection(code))
+        assertThatThrownBy(() -> collectionService.saveImage(code, imageRequestDto))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage(String.format("Collection was not found for code = %s", code));
     }
@@ -278,25 +665,16 @@ class CollectionServiceTest {
     @Test
     public void givenCollectionRequestDto_whenUpdateCollection_thenReturnCollectionResponseDto() {
         // Given
-        given(collectionRepository.findByCode(collection.getCode()))
-                .willReturn(Optional.of(collection));
-
         collectionRequestDto.setLifePeriod(200L);
         collectionRequestDto.setTitle("New title");
         collectionRequestDto.setDescription("New description");
 
-        collection.setLifePeriod(collectionRequestDto.getLifePeriod());
-        collection.setTitle(collectionRequestDto.getTitle());
-        collection.setDescription(collectionRequestDto.getDescription());
-
         collectionResponseDto.setLifePeriod(collectionRequestDto.getLifePeriod());
         collectionResponseDto.setTitle(collectionRequestDto.getTitle());
         collectionResponseDto.setDescription(collectionRequestDto.getDescription());
 
-        given(collectionRepository.save(collection))
-                .willReturn(collection);
-        given(collectionMapper.toDto(collection))
-                .willReturn(collectionResponseDto);
+        given(collectionRepository.updateByCode(collection.getCode(), 200L, "New title", "New description"))
+                .willReturn(Optional.of(collectionResponseDto));
 
         // When
         CollectionResponseDto updatedCollection = collectionService.updateCollection(collection.getCode(), collectionRequestDto);
@@ -305,45 +683,49 @@ class CollectionServiceTest {
         assertThat(updatedCollection)
                 .isNotNull()
                 .isEqualTo(collectionResponseDto);
+        verify(cacheInvalidator, times(1)).evictCollection(collection.getCode());
     }
 
     @Test
     public void givenNoExistingCode_whenUpdateCollection_thenThrowsException() {
         // Given
         String code = "12345678912";
-        given(collectionRepository.findByCode(any()))
+        given(collectionRepository.updateByCode(any(), anyLong(), any(), any()))
                 .willReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> collectionService.updateCollection(code, collectionRequestDto))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage(String.format("Collection was not found for code = %s", code));
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
     public void givenExistingCode_whenDeleteCollection_thenNothing() {
         // Given
-        given(collectionRepository.findByCode(collection.getCode()))
-                .willReturn(Optional.of(collection));
-        willDoNothing().given(collectionRepository).delete(collection);
+        given(collectionRepository.deleteByCodes(List.of(collection.getCode())))
+                .willReturn(new ReapedCollections(List.of(collection.getCode()), List.of(image.getCode())));
 
         // When
         collectionService.deleteCollection(collection.getCode());
 
         // Then
-        verify(collectionRepository, times(1)).delete(collection);
+        verify(collectionRepository, times(1)).deleteByCodes(List.of(collection.getCode()));
+        verify(cacheInvalidator, times(1)).evictCollection(collection.getCode());
+        verify(cacheInvalidator, times(1)).evictImages(List.of(image.getCode()));
     }
 
     @Test
     public void givenNoExistingCode_whenDeleteCollection_thenNothing() {
         // Given
         String code = "12345678912";
-        given(collectionRepository.findByCode(any()))
-                .willReturn(Optional.empty());
+        given(collectionRepository.deleteByCodes(any()))
+                .willReturn(new ReapedCollections(List.of(), List.of()));
 
         // Then
         assertThatThrownBy(() -> collectionService.deleteCollection(code))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage(String.format("Collection was not found for code = %s", code));
+        verifyNoInteractions(cacheInvalidator);
     }
-}
\ No newline at end of file
+}
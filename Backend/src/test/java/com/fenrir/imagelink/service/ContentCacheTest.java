@@ -0,0 +1,127 @@
+package com.fenrir.imagelink.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCacheTest {
+    @TempDir
+    private Path directory;
+
+    private ContentCache contentCache;
+
+    @BeforeEach
+    public void setup() {
+        contentCache = new ContentCache(directory, 250, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        contentCache.shutdown();
+    }
+
+    @Test
+    public void givenNewContent_whenPut_thenStoreInHashShard() throws IOException {
+        // When
+        CachedFile content = contentCache.put(hash('a'), file(100), 100, MediaType.IMAGE_PNG);
+
+        // Then
+        assertThat(content.getPath()).isEqualTo(directory.resolve("aa").resolve(hash('a')));
+        assertThat(Files.size(content.getPath())).isEqualTo(100);
+        assertThat(contentCache.get(hash('a'))).contains(content);
+        assertThat(contentCache.totalBytes()).isEqualTo(100);
+    }
+
+    @Test
+    public void givenFullCache_whenPut_thenEvictLeastRecentlyUsedAndDeleteItsFile() throws Exception {
+        // Given
+        CachedFile first = contentCache.put(hash('a'), file(100), 100, MediaType.IMAGE_PNG);
+        CachedFile second = contentCache.put(hash('b'), file(100), 100, MediaType.IMAGE_PNG);
+        contentCache.get(hash('a'));
+
+        // When
+        contentCache.put(hash('c'), file(100), 100, MediaType.IMAGE_PNG);
+
+        // Then
+        assertThat(contentCache.get(hash('b'))).isEmpty();
+        assertThat(contentCache.get(hash('a'))).contains(first);
+        assertThat(contentCache.totalBytes()).isEqualTo(200);
+        assertThat(contentCache.evictions()).isEqualTo(1);
+        assertThat(second.getPath()).exists();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (Files.exists(second.getPath()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(second.getPath()).doesNotExist();
+    }
+
+    @Test
+    public void givenCachedContent_whenPutSameHash_thenKeepExistingEntry() throws IOException {
+        // Given
+        CachedFile first = contentCache.put(hash('a'), file(100), 100, MediaType.IMAGE_PNG);
+        Path duplicate = file(100);
+
+        // When
+        CachedFile second = contentCache.put(hash('a'), duplicate, 100, MediaType.IMAGE_PNG);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(contentCache.totalBytes()).isEqualTo(100);
+        assertThat(duplicate).exists();
+    }
+
+    @Test
+    public void givenExistingCacheDirectory_whenRestart_thenKeepContentAndDeleteOnlyTemporaryFiles() throws IOException {
+        // Given
+        CachedFile content = contentCache.put(hash('a'), file(100), 100, MediaType.IMAGE_PNG);
+        Path incomplete = file(50);
+        contentCache.shutdown();
+
+        // When
+        contentCache = new ContentCache(directory, 250, Duration.ofMillis(50));
+
+        // Then
+        assertThat(content.getPath()).exists();
+        assertThat(incomplete).doesNotExist();
+        assertThat(contentCache.size()).isEqualTo(1);
+        assertThat(contentCache.totalBytes()).isEqualTo(100);
+        assertThat(contentCache.get(hash('a'))).isEmpty();
+    }
+
+    @Test
+    public void givenRecoveredContent_whenPutSameHash_thenReuseFileWithoutCountingItTwice() throws IOException {
+        // Given
+        CachedFile recovered = contentCache.put(hash('a'), file(100), 100, MediaType.IMAGE_PNG);
+        contentCache.shutdown();
+        contentCache = new ContentCache(directory, 250, Duration.ofMillis(50));
+        Path duplicate = file(100);
+
+        // When
+        CachedFile content = contentCache.put(hash('a'), duplicate, 100, MediaType.IMAGE_JPEG);
+
+        // Then
+        assertThat(content.getPath()).isEqualTo(recovered.getPath());
+        assertThat(contentCache.get(hash('a'))).contains(content);
+        assertThat(content.getMediaType()).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(contentCache.totalBytes()).isEqualTo(100);
+        assertThat(duplicate).exists();
+    }
+
+    private Path file(int length) throws IOException {
+        Path file = contentCache.createTemporaryFile();
+        return Files.write(file, new byte[length]);
+    }
+
+    private static String hash(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+}
@@ -0,0 +1,218 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.OriginProperties;
+import com.fenrir.imagelink.config.ProxyProperties;
+import com.fenrir.imagelink.exception.OriginException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ImageProxyServiceTest {
+    private static final byte[] IMAGE = "not really a png, but the proxy never decodes it".getBytes();
+
+    @Mock
+    private RedirectService redirectService;
+
+    @TempDir
+    private Path cacheDirectory;
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final CountDownLatch slowOriginRelease = new CountDownLatch(1);
+    private HttpServer origin;
+    private ImageProxyService imageProxyService;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        origin = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serve("/image.png", "image/png", IMAGE);
+        serve("/copy.png", "image/png", IMAGE);
+        serve("/page.html", "text/html", "<script>alert(1)</script>".getBytes());
+        serve("/large.png", "image/png", new byte[2048]);
+        redirect("/moved.png", "/image.png");
+        redirect("/to-loopback.png", "http://127.0.0.1:" + origin.getAddress().getPort() + "/image.png");
+        origin.createContext("/slow.png", exchange -> {
+            requests.computeIfAbsent("/slow.png", key -> new AtomicInteger()).incrementAndGet();
+            try {
+                slowOriginRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, IMAGE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(IMAGE);
+            }
+        });
+        origin.start();
+
+        ProxyProperties properties = new ProxyProperties();
+        properties.setCacheDirectory(cacheDirectory);
+        properties.setMaxObjectSize(DataSize.ofKilobytes(1));
+        OriginProperties originProperties = new OriginProperties();
+        originProperties.setAllowedHosts(List.of("localhost"));
+        imageProxyService = new ImageProxyService(redirectService, properties, new OriginGuard(originProperties));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        imageProxyService.shutdown();
+        origin.stop(0);
+    }
+
+    @Test
+    public void givenImage_whenGetImageTwice_thenFetchOnceAndServeFromCache() throws IOException {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/image.png"));
+
+        // When
+        CachedFile first = imageProxyService.getImage("ABCDEF");
+        CachedFile second = imageProxyService.getImage("ABCDEF");
+
+        // Then
+        assertThat(requests.get("/image.png")).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.getMediaType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(first.getLength()).isEqualTo(IMAGE.length);
+        assertThat(Files.readAllBytes(first.getPath())).isEqualTo(IMAGE);
+        assertThat(first.getPath().getParent().getFileName().toString())
+                .isEqualTo(first.getContentHash().substring(0, 2));
+    }
+
+    @Test
+    public void givenSameContentAtTwoUrls_whenGetImage_thenShareOneFile() {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/image.png"));
+        given(redirectService.resolve("GHIJKL")).willReturn(url("/copy.png"));
+
+        // When
+        CachedFile first = imageProxyService.getImage("ABCDEF");
+        CachedFile second = imageProxyService.getImage("GHIJKL");
+
+        // Then
+        assertThat(second.getPath()).isEqualTo(first.getPath());
+    }
+
+    @Test
+    public void givenBurstForColdImage_whenGetImage_thenFetchOriginOnce() throws Exception {
+        // Given
+        int callers = 8;
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/slow.png"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        imageProxyService.bindTo(registry);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<CachedFile>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> imageProxyService.getImage("ABCDEF")));
+            }
+            while (registry.get("imagelink.proxy.origin.coalesced").functionCounter().count() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            slowOriginRelease.countDown();
+
+            // Then
+            for (Future<CachedFile> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getLength()).isEqualTo(IMAGE.length);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(requests.get("/slow.png")).hasValue(1);
+        assertThat(registry.get("imagelink.proxy.origin.fetches").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenNonImageOrOversizedResponse_whenGetImage_thenThrowOriginException() {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/page.html"));
+        given(redirectService.resolve("GHIJKL")).willReturn(url("/large.png"));
+        given(redirectService.resolve("MNOPQR")).willReturn(url("/missing.png"));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> imageProxyService.getImage("ABCDEF"))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("text/html");
+        assertThatThrownBy(() -> imageProxyService.getImage("GHIJKL"))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("maximum proxied size");
+        assertThatThrownBy(() -> imageProxyService.getImage("MNOPQR"))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("404");
+    }
+
+    @Test
+    public void givenRedirect_whenGetImage_thenFollowOnlyToAllowedAddresses() {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/moved.png"));
+        given(redirectService.resolve("GHIJKL")).willReturn(url("/to-loopback.png"));
+        given(redirectService.resolve("MNOPQR")).willReturn("http://169.254.169.254/latest/meta-data/");
+
+        // When
+        CachedFile moved = imageProxyService.getImage("ABCDEF");
+
+        // Then
+        assertThat(moved.getLength()).isEqualTo(IMAGE.length);
+        assertThatThrownBy(() -> imageProxyService.getImage("GHIJKL"))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("public address");
+        assertThatThrownBy(() -> imageProxyService.getImage("MNOPQR"))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("public address");
+        assertThat(requests.get("/image.png")).hasValue(1);
+    }
+
+    private void redirect(String path, String location) {
+        origin.createContext(path, exchange -> {
+            exchange.getResponseHeaders().add("Location", location);
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+    }
+
+    private void serve(String path, String contentType, byte[] body) {
+        origin.createContext(path, exchange -> {
+            requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + origin.getAddress().getPort() + path;
+    }
+}
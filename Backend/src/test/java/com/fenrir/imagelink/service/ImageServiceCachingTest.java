@@ -0,0 +1,197 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.CacheConfiguration;
+import com.fenrir.imagelink.config.CacheNames;
+import com.fenrir.imagelink.config.ReplicaProperties;
+import com.fenrir.imagelink.dto.ImageRequestDto;
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.model.Collection;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.repository.UpdatedImage;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringJUnitConfig({
+        CacheConfiguration.class, ImageService.class, CacheInvalidator.class, RedirectCache.class, LookupCoalescer.class,
+        ReadYourWrites.class, ReplicaProperties.class,
+        ImageServiceCachingTest.CodeIndexConfiguration.class
+})
+class ImageServiceCachingTest {
+
+    static class CodeIndexConfiguration {
+        @Bean
+        public CodeIndex codeIndex() {
+            return CodeIndexTest.unbuiltIndex();
+        }
+    }
+
+    @MockBean
+    private ImageRepository imageRepository;
+
+    @MockBean
+    private UrlValidationWorker urlValidationWorker;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+
+    private Image image;
+    private ImageResponseDto imageResponseDto;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(CacheNames.IMAGES).clear();
+
+        image = Image.builder()
+                .id(1L)
+                .code("ABCDEF")
+                .originalUrl("url")
+                .title("title")
+                .description("description")
+                .createdAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .collection(Collection.builder().code("12345678912").build())
+                .build();
+
+        imageResponseDto = ImageResponseDto.builder()
+                .code("ABCDEF")
+                .originalUrl("url")
+                .title("title")
+                .description("description")
+                .createdAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .build();
+
+        given(imageRepository.findDtoByCode(image.getCode()))
+                .willReturn(Optional.of(imageResponseDto));
+    }
+
+    @Test
+    public void givenCachedImage_whenGetImage_thenRepositoryIsQueriedOnce() {
+        // Given
+        CacheStats statsBefore = imagesCacheStats();
+
+        // When
+        ImageResponseDto first = imageService.getImage(image.getCode());
+        ImageResponseDto second = imageService.getImage(image.getCode());
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        verify(imageRepository, times(1)).findDtoByCode(image.getCode());
+
+        CacheStats stats = imagesCacheStats().minus(statsBefore);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCachedImage_whenUpdateImage_thenNextGetImageReadsRepository() {
+        // Given
+        given(imageRepository.updateByCode(any(), any(), any(), any()))
+                .willReturn(Optional.of(new UpdatedImage(imageResponseDto, image.getCollection().getCode())));
+        imageService.getImage(image.getCode());
+
+        // When
+        imageService.updateImage(image.getCode(), ImageRequestDto.builder()
+                .originalUrl("new_url")
+                .title("new_title")
+                .build());
+        imageService.getImage(image.getCode());
+
+        // Then
+        verify(imageRepository, times(2)).findDtoByCode(image.getCode());
+    }
+
+    @Test
+    public void givenCachedImage_whenDeleteImage_thenNextGetImageReadsRepository() {
+        // Given
+        given(imageRepository.deleteByCode(image.getCode()))
+                .willReturn(Optional.of(image.getCollection().getCode()));
+        imageService.getImage(image.getCode());
+
+        // When
+        imageService.deleteImage(image.getCode());
+        imageService.getImage(image.getCode());
+
+        // Then
+        verify(imageRepository, times(2)).findDtoByCode(image.getCode());
+    }
+
+    @Test
+    public void givenCachedImage_whenCollectionExpires_thenNextGetImageIsNotFound() throws InterruptedException {
+        // Given
+        imageResponseDto.setExpiresAt(LocalDateTime.now().plusNanos(200_000_000));
+        imageService.getImage(image.getCode());
+        given(imageRepository.findDtoByCode(image.getCode())).willReturn(Optional.empty());
+
+        // When
+        Thread.sleep(250);
+
+        // Then
+        assertThatThrownBy(() -> imageService.getImage(image.getCode()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(imageRepository, times(2)).findDtoByCode(image.getCode());
+    }
+
+    @Test
+    public void givenLoadInFlight_whenImageEvicted_thenLoadedValueIsNotLeftInCache() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(imageRepository.findDtoByCode(image.getCode())).willAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(imageResponseDto);
+        });
+        CompletableFuture<ImageResponseDto> staleRead = CompletableFuture.supplyAsync(() -> imageService.getImage(image.getCode()));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<Void> eviction = CompletableFuture.runAsync(() -> cacheInvalidator.evictImage(image.getCode()));
+        try {
+            eviction.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The eviction waits for the in-flight load of the same key.
+        }
+        release.countDown();
+        staleRead.get(5, TimeUnit.SECONDS);
+        eviction.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(cacheManager.getCache(CacheNames.IMAGES).get(image.getCode())).isNull();
+    }
+
+    private CacheStats imagesCacheStats() {
+        TransactionAwareCacheDecorator cache = (TransactionAwareCacheDecorator) cacheManager.getCache(CacheNames.IMAGES);
+        return ((CaffeineCache) cache.getTargetCache()).getNativeCache().stats();
+    }
+}
@@ -1,29 +1,39 @@
 package com.fenrir.imagelink.service;
 
+import com.fenrir.imagelink.config.ReplicaProperties;
 import com.fenrir.imagelink.dto.ImageRequestDto;
 import com.fenrir.imagelink.dto.ImageResponseDto;
-import com.fenrir.imagelink.dto.mapper.ImageMapper;
 import com.fenrir.imagelink.exception.ResourceNotFoundException;
 import com.fenrir.imagelink.model.Collection;
 import com.fenrir.imagelink.model.Image;
 import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.repository.UpdatedImage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class ImageServiceTest {
@@ -31,7 +41,19 @@ class ImageServiceTest {
     private ImageRepository imageRepository;
 
     @Mock
-    private ImageMapper imageMapper;
+    private CacheInvalidator cacheInvalidator;
+
+    @Spy
+    private CodeIndex codeIndex = CodeIndexTest.unbuiltIndex();
+
+    @Mock
+    private UrlValidationWorker urlValidationWorker;
+
+    @Spy
+    private LookupCoalescer lookupCoalescer = new LookupCoalescer();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(new ReplicaProperties());
 
     @InjectMocks
     private ImageService imageService;
@@ -50,7 +72,7 @@ class ImageServiceTest {
                 .description("description")
                 .createdAt(LocalDateTime.of(2022, 1, 1, 12, 0))
                 .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 0))
-                .collection(new Collection())
+                .collection(Collection.builder().code("12345678912").build())
                 .build();
 
         imageRequestDto = ImageRequestDto.builder()
@@ -72,10 +94,8 @@ class ImageServiceTest {
     @Test
     public void givenExistingCode_whenGetImage_thenReturnImageResponseDtoObject() {
         // Given
-        given(imageRepository.findByCode(image.getCode()))
-                .willReturn(Optional.of(image));
-        given(imageMapper.toDto(image))
-                .willReturn(imageResponseDto);
+        given(imageRepository.findDtoByCode(image.getCode()))
+                .willReturn(Optional.of(imageResponseDto));
 
         // When
         ImageResponseDto actualImageResponseDto = imageService.getImage(image.getCode());
@@ -90,7 +110,7 @@ class ImageServiceTest {
     public void givenNoExistingCode_whenGetImage_thenThrowsException() {
         // Given
         String code = "ABCDEF";
-        given(imageRepository.findByCode(any()))
+        given(imageRepository.findDtoByCode(any()))
                 .willReturn(Optional.empty());
 
         // Then
@@ -100,23 +120,67 @@ class ImageServiceTest {
     }
 
     @Test
-    public void givenImageRequestDtoObject_whenUpdateImage_thenReturnImageResponseDtoObject() {
+    public void givenCodeAbsentFromIndex_whenGetImage_thenThrowsWithoutQueryingRepository() {
+        // Given
+        String code = "ABCDEFGHIJK";
+        given(codeIndex.isImageAbsent(code)).willReturn(true);
+
+        // Then
+        assertThatThrownBy(() -> imageService.getImage(code))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage(String.format("Image was not found for code = %s", code));
+        verifyNoInteractions(imageRepository);
+    }
+
+    @Test
+    public void givenConcurrentMissesForSameCode_whenGetImage_thenQueryRepositoryOnce() throws Exception {
         // Given
-        given(imageRepository.findByCode(image.getCode()))
-                .willReturn(Optional.of(image));
+        int callers = 8;
+        CountDownLatch queryRelease = new CountDownLatch(1);
+        given(imageRepository.findDtoByCode(image.getCode())).willAnswer(invocation -> {
+            queryRelease.await(5, TimeUnit.SECONDS);
+            return Optional.of(imageResponseDto);
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        lookupCoalescer.bindTo(registry);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
 
-        image.setOriginalUrl(imageRequestDto.getOriginalUrl());
-        image.setTitle(imageRequestDto.getTitle());
-        image.setDescription(imageRequestDto.getDescription());
+        // When
+        List<Future<ImageResponseDto>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> imageService.getImage(image.getCode())));
+            }
+            while (registry.get("imagelink.lookup.coalesced").tag("kind", "image").functionCounter().count() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            queryRelease.countDown();
+
+            // Then
+            for (Future<ImageResponseDto> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(imageResponseDto);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(imageRepository, times(1)).findDtoByCode(image.getCode());
+        assertThat(registry.get("imagelink.lookup.executed").tag("kind", "image").functionCounter().count())
+                .isEqualTo(1);
+    }
 
+    @Test
+    public void givenImageRequestDtoObject_whenUpdateImage_thenReturnImageResponseDtoObject() {
+        // Given
         imageResponseDto.setOriginalUrl(imageRequestDto.getOriginalUrl());
         imageResponseDto.setTitle(imageRequestDto.getTitle());
         imageResponseDto.setDescription(imageRequestDto.getDescription());
 
-        given(imageRepository.save(image))
-                .willReturn(image);
-        given(imageMapper.toDto(image))
-                .willReturn(imageResponseDto);
+        given(imageRepository.updateByCode(
+                image.getCode(),
+                imageRequestDto.getOriginalUrl(),
+                imageRequestDto.getTitle(),
+                imageRequestDto.getDescription()))
+                .willReturn(Optional.of(new UpdatedImage(imageResponseDto, image.getCollection().getCode())));
 
         // When
         ImageResponseDto updatedImage = imageService.updateImage(image.getCode(), imageRequestDto);
@@ -125,40 +189,45 @@ class ImageServiceTest {
         assertThat(updatedImage)
                 .isNotNull()
                 .isEqualTo(imageResponseDto);
+        verify(cacheInvalidator, times(1)).evictImage(image.getCode());
+        verify(cacheInvalidator, times(1)).evictCollectionImages(image.getCollection().getCode());
+        verify(urlValidationWorker, times(1)).enqueue(image.getCode(), imageResponseDto.getOriginalUrl());
     }
 
     @Test
     public void givenNoExistingCode_whenUpdateImage_thenThrowsException() {
         // Given
         String code = "ABCDEF";
-        given(imageRepository.findByCode(any()))
+        given(imageRepository.updateByCode(any(), any(), any(), any()))
                 .willReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> imageService.updateImage(code, imageRequestDto))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage(String.format("Image was not found for code = %s", code));
+        verifyNoInteractions(cacheInvalidator, urlValidationWorker);
     }
 
     @Test
     public void givenExistingCode_whenDeleteImage_thenNothing() {
         // Given
-        given(imageRepository.findByCode(image.getCode()))
-                .willReturn(Optional.of(image));
-        willDoNothing().given(imageRepository).delete(image);
+        given(imageRepository.deleteByCode(image.getCode()))
+                .willReturn(Optional.of(image.getCollection().getCode()));
 
         // When
         imageService.deleteImage(image.getCode());
 
         // Then
-        verify(imageRepository, times(1)).delete(image);
+        verify(imageRepository, times(1)).deleteByCode(image.getCode());
+        verify(cacheInvalidator, times(1)).evictImage(image.getCode());
+        verify(cacheInvalidator, times(1)).evictCollectionImages(image.getCollection().getCode());
     }
 
     @Test
     public void givenNoExistingCode_whenDeleteImage_thenThrowsException() {
         // Given
         String code = "ABCDEF";
-        given(imageRepository.findByCode(any()))
+        given(imageRepository.deleteByCode(any()))
                 .willReturn(Optional.empty());
 
         // Then
@@ -166,4 +235,4 @@ class ImageServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage(String.format("Image was not found for code = %s", code));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.fenrir.imagelink.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapCodeTableTest {
+    private final OffHeapCodeTable table = new OffHeapCodeTable(16);
+
+    @Test
+    public void givenStoredCode_whenContains_thenReturnTrue() {
+        // Given
+        table.add(42L);
+        table.add(0L);
+
+        // When
+        boolean contains = table.contains(42L);
+
+        // Then
+        assertThat(contains).isTrue();
+        assertThat(table.contains(0L)).isTrue();
+        assertThat(table.contains(43L)).isFalse();
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenStoredCode_whenAddAgain_thenKeepSize() {
+        // Given
+        table.add(42L);
+
+        // When
+        table.add(42L);
+
+        // Then
+        assertThat(table.contains(42L)).isTrue();
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenZeroCode_whenRemove_thenNoLongerContained() {
+        // Given
+        table.add(0L);
+        table.add(42L);
+
+        // When
+        table.remove(0L);
+        table.remove(0L);
+
+        // Then
+        assertThat(table.contains(0L)).isFalse();
+        assertThat(table.contains(42L)).isTrue();
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenManyCodes_whenRemoveHalf_thenRemainingCodesStayReachable() {
+        // Given
+        SplittableRandom random = new SplittableRandom(1);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long code = random.nextLong();
+            table.add(code);
+            expected.add(code);
+        }
+        long memoryBeforeRemove = table.memoryBytes();
+
+        // When
+        expected.removeIf(code -> {
+            if ((code & 1) == 0) {
+                table.remove(code);
+                return true;
+            }
+            return false;
+        });
+
+        // Then
+        assertThat(memoryBeforeRemove).isGreaterThan(16L * 16 * 8);
+        assertThat(table.size()).isEqualTo(expected.size());
+        expected.forEach(code -> assertThat(table.contains(code)).isTrue());
+        random = new SplittableRandom(1);
+        for (int i = 0; i < 10_000; i++) {
+            long code = random.nextLong();
+            assertThat(table.contains(code)).isEqualTo((code & 1) != 0);
+        }
+    }
+
+    @Test
+    public void givenMissingCode_whenRemove_thenKeepSize() {
+        // Given
+        table.add(42L);
+
+        // When
+        table.remove(43L);
+
+        // Then
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.contains(42L)).isTrue();
+    }
+}
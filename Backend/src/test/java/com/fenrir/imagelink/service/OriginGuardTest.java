@@ -0,0 +1,103 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.OriginProperties;
+import com.fenrir.imagelink.exception.OriginException;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OriginGuardTest {
+
+    @Test
+    public void givenInternalAddresses_whenIsPublic_thenFalse() throws UnknownHostException {
+        // Given
+        List<String> internal = List.of(
+                "127.0.0.1", "10.1.2.3", "172.16.0.1", "172.31.255.255", "192.168.1.1", "169.254.169.254",
+                "0.0.0.0", "100.64.0.1", "198.18.0.1", "224.0.0.1", "255.255.255.255",
+                "::1", "::", "fe80::1", "fd00:ec2::254", "::ffff:10.0.0.1", "::10.0.0.1");
+
+        // When
+        // Then
+        for (String address : internal) {
+            assertThat(OriginGuard.isPublic(InetAddress.getByName(address))).as(address).isFalse();
+        }
+    }
+
+    @Test
+    public void givenPublicAddresses_whenIsPublic_thenTrue() throws UnknownHostException {
+        // Given
+        List<String> external = List.of("93.184.216.34", "172.32.0.1", "100.128.0.1", "2606:4700::6810:84e5");
+
+        // When
+        // Then
+        for (String address : external) {
+            assertThat(OriginGuard.isPublic(InetAddress.getByName(address))).as(address).isTrue();
+        }
+    }
+
+    @Test
+    public void givenAllowedHost_whenCheck_thenSkipAddressFilterForThatHostOnly() {
+        // Given
+        OriginProperties properties = new OriginProperties();
+        properties.setAllowedHosts(List.of("LocalHost"));
+        OriginGuard originGuard = new OriginGuard(properties);
+
+        // When
+        // Then
+        assertThatCode(() -> originGuard.check(URI.create("http://localhost:8080/image.png"))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> originGuard.check(URI.create("http://127.0.0.1:8080/image.png")))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("public address");
+        assertThatThrownBy(() -> originGuard.check(URI.create("file:///etc/passwd")))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("http or https");
+    }
+
+    @Test
+    public void givenCheckedHost_whenClientConnects_thenPinCheckedAddressAndFailClosedOnRebind() throws UnknownHostException {
+        // Given
+        AtomicReference<InetAddress> answer = new AtomicReference<>(InetAddress.getByName("93.184.216.34"));
+        OriginGuard originGuard = new OriginGuard(new OriginProperties(), host -> new InetAddress[] { answer.get() });
+        ProxySelector routes = originGuard.clientBuilder().build().proxy().orElseThrow();
+
+        // When
+        List<Proxy> pinned = routes.select(URI.create("http://images.example:8080/image.png"));
+        answer.set(InetAddress.getByName("10.0.0.1"));
+
+        // Then
+        assertThat(pinned).containsExactly(new Proxy(Proxy.Type.HTTP, new InetSocketAddress("93.184.216.34", 8080)));
+        assertThat(routes.select(URI.create("https://images.example/image.png"))).containsExactly(Proxy.NO_PROXY);
+        assertThatThrownBy(() -> routes.select(URI.create("http://images.example:8080/image.png")))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("public address");
+    }
+
+    @Test
+    public void givenClientWithoutPinnedRoutes_whenSend_thenReject() {
+        // Given
+        OriginGuard originGuard = new OriginGuard(new OriginProperties());
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://images.example/image.png");
+
+        // When
+        // Then
+        assertThatThrownBy(() -> originGuard.send(client, uri, HttpRequest.newBuilder(), HttpResponse.BodyHandlers.discarding()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> originGuard.sendAsync(client, uri, HttpRequest.newBuilder(), HttpResponse.BodyHandlers.discarding()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
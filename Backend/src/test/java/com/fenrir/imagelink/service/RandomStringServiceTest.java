@@ -1,7 +1,13 @@
 package com.fenrir.imagelink.service;
 
+import com.fenrir.imagelink.config.CodeGenerationProperties;
 import org.junit.jupiter.api.Test;
 
+import java.util.Base64;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -46,4 +52,52 @@ class RandomStringServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Length should be greater then 1");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenAnyLengthOfString_whenGenerate_thenReturnUrlSafeStringOfThatLength() {
+        // Given
+        RandomStringService randomStringService = new RandomStringService();
+
+        for (int length = 2; length <= 64; length++) {
+            // When
+            String randomString = randomStringService.generate(length);
+
+            // Then
+            assertThat(randomString)
+                    .hasSize(length)
+                    .matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @Test
+    public void givenCodeLength_whenGenerate_thenReturnBase64UrlOfEightBytes() {
+        // Given
+        RandomStringService randomStringService = new RandomStringService();
+
+        for (int i = 0; i < 1000; i++) {
+            // When
+            String code = randomStringService.generate(11);
+            byte[] decoded = Base64.getUrlDecoder().decode(code);
+
+            // Then
+            assertThat(decoded).hasSize(8);
+            assertThat(Base64.getUrlEncoder().withoutPadding().encodeToString(decoded)).isEqualTo(code);
+        }
+    }
+
+    @Test
+    public void givenSecureRandomness_whenGenerate_thenReturnDistinctStrings() {
+        // Given
+        CodeGenerationProperties properties = new CodeGenerationProperties();
+        properties.setRandomness(CodeGenerationProperties.Randomness.SECURE);
+        RandomStringService randomStringService = new RandomStringService(properties);
+
+        // When
+        Set<String> codes = IntStream.range(0, 1000)
+                .mapToObj(i -> randomStringService.generate(11))
+                .collect(Collectors.toSet());
+
+        // Then
+        assertThat(codes).hasSize(1000);
+    }
+}
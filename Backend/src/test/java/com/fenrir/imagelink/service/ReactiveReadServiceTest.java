@@ -0,0 +1,114 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.dto.ImageResponseDto;
+import com.fenrir.imagelink.dto.mapper.CollectionMapper;
+import com.fenrir.imagelink.dto.mapper.ImageMapper;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.model.Image;
+import com.fenrir.imagelink.repository.ReactiveReadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveReadServiceTest {
+    @Mock
+    private ReactiveReadRepository reactiveReadRepository;
+
+    @Mock
+    private ImageMapper imageMapper;
+
+    @Mock
+    private CollectionMapper collectionMapper;
+
+    @InjectMocks
+    private ReactiveReadService reactiveReadService;
+
+    private Image image;
+    private ImageResponseDto imageResponseDto;
+
+    @BeforeEach
+    public void setup() {
+        image = Image.builder()
+                .code("ABCDEF")
+                .originalUrl("url")
+                .title("title")
+                .createdAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .build();
+
+        imageResponseDto = ImageResponseDto.builder()
+                .code("ABCDEF")
+                .originalUrl("url")
+                .title("title")
+                .createdAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .updatedAt(LocalDateTime.of(2022, 1, 1, 12, 0))
+                .build();
+    }
+
+    @Test
+    public void givenExistingImageCode_whenGetImage_thenReturnImageDto() {
+        // Given
+        given(reactiveReadRepository.findImageByCode("ABCDEF")).willReturn(Mono.just(image));
+        given(imageMapper.toDto(image)).willReturn(imageResponseDto);
+
+        // When
+        ImageResponseDto result = reactiveReadService.getImage("ABCDEF").block();
+
+        // Then
+        assertThat(result).isEqualTo(imageResponseDto);
+    }
+
+    @Test
+    public void givenNonExistingImageCode_whenGetImage_thenEmitResourceNotFoundException() {
+        // Given
+        given(reactiveReadRepository.findImageByCode("ABCDEF")).willReturn(Mono.empty());
+
+        // When
+        Mono<ImageResponseDto> result = reactiveReadService.getImage("ABCDEF");
+
+        // Then
+        assertThatThrownBy(result::block)
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Image was not found for code = ABCDEF");
+    }
+
+    @Test
+    public void givenNonExistingCollectionCode_whenGetCollection_thenEmitResourceNotFoundException() {
+        // Given
+        given(reactiveReadRepository.findCollectionByCode("ABCDEF")).willReturn(Mono.empty());
+
+        // When
+        // Then
+        assertThatThrownBy(() -> reactiveReadService.getCollection("ABCDEF").block())
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Collection was not found for code = ABCDEF");
+    }
+
+    @Test
+    public void givenCollectionWithImages_whenGetAllImagesByCollectionCode_thenEmitImageDtos() {
+        // Given
+        given(reactiveReadRepository.findImagesByCollectionCode("ABCDEF")).willReturn(Flux.just(image, image));
+        given(imageMapper.toDto(image)).willReturn(imageResponseDto);
+
+        // When
+        List<ImageResponseDto> result = reactiveReadService.getAllImagesByCollectionCode("ABCDEF")
+                .collectList()
+                .block();
+
+        // Then
+        assertThat(result).containsExactly(imageResponseDto, imageResponseDto);
+    }
+}
@@ -0,0 +1,50 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.ReplicaProperties;
+import com.fenrir.imagelink.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTest {
+
+    @Test
+    public void givenRecentWrite_whenRead_thenPinOnlyThatCodeToPrimary() {
+        // Given
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setEnabled(true);
+        ReadYourWrites readYourWrites = new ReadYourWrites(properties);
+        readYourWrites.written(List.of("ABCDEF", "12345678912"));
+
+        // When
+        boolean writtenPinned = readYourWrites.read("ABCDEF", ReplicaRoutingDataSource::isPinnedToPrimary);
+        boolean collectionPinned = readYourWrites.read("12345678912", ReplicaRoutingDataSource::isPinnedToPrimary);
+        boolean otherPinned = readYourWrites.read("GHIJKL", ReplicaRoutingDataSource::isPinnedToPrimary);
+
+        // Then
+        assertThat(writtenPinned).isTrue();
+        assertThat(collectionPinned).isTrue();
+        assertThat(otherPinned).isFalse();
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    @Test
+    public void givenReplicasDisabledOrNoWindow_whenRead_thenNeverPin() {
+        // Given
+        ReplicaProperties withoutWindow = new ReplicaProperties();
+        withoutWindow.setEnabled(true);
+        withoutWindow.setReadYourWritesWindow(Duration.ZERO);
+        ReadYourWrites disabled = new ReadYourWrites(new ReplicaProperties());
+        ReadYourWrites windowless = new ReadYourWrites(withoutWindow);
+        disabled.written("ABCDEF");
+        windowless.written("ABCDEF");
+
+        // When
+        // Then
+        assertThat(disabled.read("ABCDEF", ReplicaRoutingDataSource::isPinnedToPrimary)).isFalse();
+        assertThat(windowless.read("ABCDEF", ReplicaRoutingDataSource::isPinnedToPrimary)).isFalse();
+    }
+}
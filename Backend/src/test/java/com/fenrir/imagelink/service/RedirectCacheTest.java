@@ -0,0 +1,65 @@
+package com.fenrir.imagelink.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedirectCacheTest {
+    private final RedirectCache redirectCache = new RedirectCache(16, Duration.ofMinutes(10));
+    private final String code = Codes.decode(42L);
+
+    @Test
+    public void givenCachedUrl_whenGet_thenReturnUrl() {
+        // Given
+        redirectCache.put(42L, "http://localhost/image.png", LocalDateTime.now().plusDays(1), redirectCache.stamp());
+
+        // When
+        String originalUrl = redirectCache.get(42L);
+
+        // Then
+        assertThat(originalUrl).isEqualTo("http://localhost/image.png");
+        assertThat(redirectCache.get(43L)).isNull();
+    }
+
+    @Test
+    public void givenExpiredCollection_whenPut_thenDoNotCache() {
+        // Given
+        redirectCache.put(42L, "http://localhost/image.png", LocalDateTime.now().minusSeconds(1), redirectCache.stamp());
+
+        // When
+        String originalUrl = redirectCache.get(42L);
+
+        // Then
+        assertThat(originalUrl).isNull();
+    }
+
+    @Test
+    public void givenCachedUrl_whenEvict_thenReturnNull() {
+        // Given
+        redirectCache.put(42L, "http://localhost/image.png", LocalDateTime.now().plusDays(1), redirectCache.stamp());
+
+        // When
+        redirectCache.evict(code);
+
+        // Then
+        assertThat(redirectCache.get(42L)).isNull();
+    }
+
+    @Test
+    public void givenEvictAfterStamp_whenPut_thenDoNotCacheUrl() {
+        // Given
+        long stamp = redirectCache.stamp();
+        redirectCache.evict(code);
+
+        // When
+        redirectCache.put(42L, "http://localhost/image.png", LocalDateTime.now().plusDays(1), stamp);
+
+        // Then
+        assertThat(redirectCache.get(42L)).isNull();
+        redirectCache.put(42L, "http://localhost/image.png", LocalDateTime.now().plusDays(1), redirectCache.stamp());
+        assertThat(redirectCache.get(42L)).isEqualTo("http://localhost/image.png");
+    }
+}
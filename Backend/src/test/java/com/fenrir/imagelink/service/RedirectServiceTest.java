@@ -0,0 +1,97 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.ReplicaProperties;
+import com.fenrir.imagelink.dto.ImageRedirectDto;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.repository.ImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class RedirectServiceTest {
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Spy
+    private CodeIndex codeIndex = CodeIndexTest.unbuiltIndex();
+
+    private RedirectService redirectService;
+
+    private final String code = Codes.decode(42L);
+
+    @BeforeEach
+    public void setup() {
+        redirectService = new RedirectService(imageRepository, new RedirectCache(16, Duration.ofMinutes(10)), codeIndex,
+                new ReadYourWrites(new ReplicaProperties()));
+    }
+
+    @Test
+    public void givenExistingImageCode_whenResolveTwice_thenQueryRepositoryOnce() {
+        // Given
+        given(imageRepository.findRedirectByCode(code))
+                .willReturn(Optional.of(new ImageRedirectDto("http://localhost/image.png", LocalDateTime.now().plusDays(1))));
+
+        // When
+        String first = redirectService.resolve(code);
+        String second = redirectService.resolve(code);
+
+        // Then
+        assertThat(first).isEqualTo("http://localhost/image.png");
+        assertThat(second).isEqualTo("http://localhost/image.png");
+        verify(imageRepository, times(1)).findRedirectByCode(code);
+    }
+
+    @Test
+    public void givenNonEncodableCode_whenResolve_thenQueryRepositoryWithoutCaching() {
+        // Given
+        given(imageRepository.findRedirectByCode("ABCDEF"))
+                .willReturn(Optional.of(new ImageRedirectDto("http://localhost/image.png", LocalDateTime.now().plusDays(1))));
+
+        // When
+        redirectService.resolve("ABCDEF");
+        redirectService.resolve("ABCDEF");
+
+        // Then
+        verify(imageRepository, times(2)).findRedirectByCode("ABCDEF");
+    }
+
+    @Test
+    public void givenNonExistingImageCode_whenResolve_thenThrowResourceNotFoundException() {
+        // Given
+        given(imageRepository.findRedirectByCode(code)).willReturn(Optional.empty());
+
+        // When
+        // Then
+        assertThatThrownBy(() -> redirectService.resolve(code))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage(String.format("Image was not found for code = %s", code));
+    }
+
+    @Test
+    public void givenCodeAbsentFromIndex_whenResolve_thenThrowWithoutQueryingRepository() {
+        // Given
+        given(codeIndex.isImageAbsent(code)).willReturn(true);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> redirectService.resolve(code))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage(String.format("Image was not found for code = %s", code));
+        verifyNoInteractions(imageRepository);
+    }
+}
@@ -0,0 +1,65 @@
+package com.fenrir.imagelink.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    public void givenMoreCodesThanExpected_whenMightContain_thenNeverMissAddedCode() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_024, 0.01);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 1; i <= 20_000; i++) {
+            filter.add(random.nextLong());
+        }
+
+        // When
+        random = new SplittableRandom(1);
+        int missed = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (!filter.mightContain(random.nextLong())) {
+                missed++;
+            }
+        }
+
+        // Then
+        assertThat(missed).isZero();
+        assertThat(filter.layerCount()).isGreaterThan(1);
+        assertThat(filter.size()).isEqualTo(20_000);
+    }
+
+    @Test
+    public void givenFilledFilter_whenMightContainUnknownCodes_thenStayNearTargetRate() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(10_000, 0.01);
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 1; i <= 40_000; i++) {
+            filter.add(random.nextLong());
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat(falsePositives / 100_000.0).isLessThan(0.015);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    public void givenInvalidRate_whenCreate_thenThrowIllegalArgumentException() {
+        // When
+        // Then
+        assertThatThrownBy(() -> new ScalableBloomFilter(1_024, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
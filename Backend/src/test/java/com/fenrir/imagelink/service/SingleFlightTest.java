@@ -0,0 +1,112 @@
+package com.fenrir.imagelink.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void givenConcurrentCallsForSameKey_whenExecute_thenRunOnceAndShareResult() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            while (singleFlight.coalesced() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Then
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.executed()).isEqualTo(1);
+        assertThat(singleFlight.coalesced()).isEqualTo(callers - 1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    public void givenFailedCall_whenExecuteAgain_thenRunAgain() {
+        // Given
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("origin down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // When
+        int result = singleFlight.execute("key", () -> 7);
+
+        // Then
+        assertThat(result).isEqualTo(7);
+        assertThat(singleFlight.executed()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenFailingLeader_whenFollowerWaits_thenFollowerSeesSameException() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                throw new IllegalStateException("origin down");
+            }));
+            while (singleFlight.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+
+            // When
+            Thread follower = new Thread(() -> {
+                while (singleFlight.coalesced() == 0) {
+                    Thread.onSpinWait();
+                }
+                release.countDown();
+            });
+            follower.start();
+
+            // Then
+            assertThatThrownBy(() -> singleFlight.execute("key", () -> 0))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("origin down");
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.OriginProperties;
+import com.fenrir.imagelink.config.ThumbnailProperties;
+import com.fenrir.imagelink.exception.OriginException;
+import com.fenrir.imagelink.exception.ResourceNotFoundException;
+import com.fenrir.imagelink.exception.ThumbnailException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ThumbnailServiceTest {
+    @Mock
+    private RedirectService redirectService;
+
+    @TempDir
+    private Path cacheDirectory;
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private HttpServer origin;
+    private ExecutorService originExecutor;
+    private ThumbnailProperties properties;
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        byte[] photo = encode(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "jpg");
+        byte[] logo = encode(new BufferedImage(300, 1200, BufferedImage.TYPE_INT_ARGB), "png");
+
+        origin = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        originExecutor = Executors.newCachedThreadPool();
+        origin.setExecutor(originExecutor);
+        serve("/photo.jpg", 200, photo);
+        serve("/copy-of-photo.jpg", 200, photo);
+        serve("/logo.png", 200, logo);
+        serve("/missing.png", 404, new byte[0]);
+        serve("/text", 200, "not an image".getBytes());
+        origin.createContext("/slow.jpg", exchange -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, photo.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(photo);
+            }
+        });
+        origin.start();
+
+        properties = new ThumbnailProperties();
+        properties.setCacheDirectory(cacheDirectory);
+        properties.setSizes(List.of(64, 256));
+        thumbnailService = thumbnailService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        thumbnailService.shutdown();
+        origin.stop(0);
+        originExecutor.shutdownNow();
+    }
+
+    @Test
+    public void givenImage_whenGetThumbnailTwice_thenFetchOnceAndServeFromDisk() throws IOException {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/photo.jpg"));
+
+        // When
+        CachedFile first = thumbnailService.getThumbnail("ABCDEF", 256);
+        CachedFile second = thumbnailService.getThumbnail("ABCDEF", 64);
+
+        // Then
+        assertThat(requests.get("/photo.jpg")).hasValue(1);
+        assertThat(first.getMediaType()).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(first.getLength()).isEqualTo(Files.size(first.getPath()));
+        BufferedImage thumbnail = ImageIO.read(first.getPath().toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(256);
+        assertThat(thumbnail.getHeight()).isEqualTo(192);
+        assertThat(second.getContentHash()).isEqualTo(first.getContentHash());
+        assertThat(ImageIO.read(second.getPath().toFile()).getWidth()).isEqualTo(64);
+    }
+
+    @Test
+    public void givenSameContentAtTwoUrls_whenGetThumbnail_thenShareThumbnailFiles() {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/photo.jpg"));
+        given(redirectService.resolve("GHIJKL")).willReturn(url("/copy-of-photo.jpg"));
+
+        // When
+        CachedFile first = thumbnailService.getThumbnail("ABCDEF", 256);
+        CachedFile second = thumbnailService.getThumbnail("GHIJKL", 256);
+
+        // Then
+        assertThat(second.getPath()).isEqualTo(first.getPath());
+        assertThat(requests.get("/copy-of-photo.jpg")).hasValue(1);
+    }
+
+    @Test
+    public void givenTransparentImage_whenGetThumbnail_thenKeepPngAndAspectRatio() throws IOException {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/logo.png"));
+
+        // When
+        CachedFile thumbnail = thumbnailService.getThumbnail("ABCDEF", 256);
+
+        // Then
+        assertThat(thumbnail.getMediaType()).isEqualTo(MediaType.IMAGE_PNG);
+        BufferedImage image = ImageIO.read(thumbnail.getPath().toFile());
+        assertThat(image.getWidth()).isEqualTo(64);
+        assertThat(image.getHeight()).isEqualTo(256);
+    }
+
+    @Test
+    public void givenUnsupportedSize_whenGetThumbnail_thenThrowResourceNotFoundException() {
+        // When
+        // Then
+        assertThatThrownBy(() -> thumbnailService.getThumbnail("ABCDEF", 100))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(redirectService);
+    }
+
+    @Test
+    public void givenOriginError_whenGetThumbnail_thenThrowThumbnailException() {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/missing.png"));
+        given(redirectService.resolve("GHIJKL")).willReturn(url("/text"));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> thumbnailService.getThumbnail("ABCDEF", 256))
+                .isInstanceOf(ThumbnailException.class)
+                .hasMessageContaining("404");
+        assertThatThrownBy(() -> thumbnailService.getThumbnail("GHIJKL", 256))
+                .isInstanceOf(ThumbnailException.class);
+    }
+
+    @Test
+    public void givenSourceOverPixelLimit_whenGetThumbnail_thenRejectBeforeDecoding() {
+        // Given
+        properties.setMaxSourcePixels(400 * 300);
+        thumbnailService.shutdown();
+        thumbnailService = thumbnailService();
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/photo.jpg"));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> thumbnailService.getThumbnail("ABCDEF", 256))
+                .isInstanceOf(ThumbnailException.class)
+                .hasMessageContaining("pixels");
+    }
+
+    @Test
+    public void givenInternalOrigin_whenGetThumbnail_thenRefuseToFetch() {
+        // Given
+        given(redirectService.resolve("ABCDEF")).willReturn("http://169.254.169.254/latest/meta-data/");
+        given(redirectService.resolve("GHIJKL")).willReturn("http://127.0.0.1:" + origin.getAddress().getPort() + "/photo.jpg");
+
+        // When
+        // Then
+        assertThatThrownBy(() -> thumbnailService.getThumbnail("ABCDEF", 256))
+                .isInstanceOf(OriginException.class)
+                .hasMessageContaining("public address");
+        assertThatThrownBy(() -> thumbnailService.getThumbnail("GHIJKL", 256))
+                .isInstanceOf(OriginException.class);
+        assertThat(requests).doesNotContainKey("/photo.jpg");
+    }
+
+    @Test
+    public void givenGenerationTimeout_whenGetThumbnail_thenCancelGenerationAndFreeWorker() {
+        // Given
+        properties.setWorkers(1);
+        properties.setGenerationTimeout(Duration.ofMillis(500));
+        thumbnailService.shutdown();
+        thumbnailService = thumbnailService();
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/slow.jpg"));
+        given(redirectService.resolve("GHIJKL")).willReturn(url("/photo.jpg"));
+
+        // When
+        assertThatThrownBy(() -> thumbnailService.getThumbnail("ABCDEF", 256))
+                .isInstanceOf(ThumbnailException.class)
+                .hasMessageContaining("timed out");
+        CachedFile thumbnail = thumbnailService.getThumbnail("GHIJKL", 256);
+
+        // Then
+        assertThat(thumbnail.getPath()).exists();
+    }
+
+    @Test
+    public void givenExpiredSourceLink_whenGetThumbnailOrSweep_thenFetchAgainAndDeleteLink() throws IOException {
+        // Given
+        properties.setSourceTimeToLive(Duration.ofMinutes(1));
+        given(redirectService.resolve("ABCDEF")).willReturn(url("/photo.jpg"));
+        thumbnailService.getThumbnail("ABCDEF", 256);
+        backdateSourceLinks(Duration.ofMinutes(2));
+
+        // When
+        thumbnailService.getThumbnail("ABCDEF", 256);
+        backdateSourceLinks(Duration.ofMinutes(2));
+        thumbnailService.deleteExpiredSources();
+
+        // Then
+        assertThat(requests.get("/photo.jpg")).hasValue(2);
+        assertThat(cacheDirectory.resolve("sources")).isEmptyDirectory();
+    }
+
+    private void backdateSourceLinks(Duration age) throws IOException {
+        FileTime writtenAt = FileTime.from(Instant.now().minus(age));
+        try (Stream<Path> links = Files.list(cacheDirectory.resolve("sources"))) {
+            for (Path link : links.toList()) {
+                Files.setLastModifiedTime(link, writtenAt);
+            }
+        }
+    }
+
+    private ThumbnailService thumbnailService() {
+        OriginProperties originProperties = new OriginProperties();
+        originProperties.setAllowedHosts(List.of("localhost"));
+        return new ThumbnailService(redirectService, properties, new OriginGuard(originProperties));
+    }
+
+    private void serve(String path, int status, byte[] body) {
+        origin.createContext(path, exchange -> {
+            requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + origin.getAddress().getPort() + path;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,293 @@
+package com.fenrir.imagelink.service;
+
+import com.fenrir.imagelink.config.OriginProperties;
+import com.fenrir.imagelink.config.UrlValidationProperties;
+import com.fenrir.imagelink.model.UrlStatus;
+import com.fenrir.imagelink.repository.ImageRepository;
+import com.fenrir.imagelink.repository.UrlMetadata;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UrlValidationWorkerTest {
+    @Mock
+    private ImageRepository imageRepository;
+
+    private final List<Long> rateLimitedRequests = new CopyOnWriteArrayList<>();
+    private final List<String> rangeHeaders = new CopyOnWriteArrayList<>();
+    private final CountDownLatch slowResponse = new CountDownLatch(1);
+    private HttpServer origin;
+    private UrlValidationProperties properties;
+    private OriginGuard originGuard;
+    private UrlValidationWorker worker;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        byte[] image = noise(640, 480);
+
+        origin = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        origin.createContext("/image.png", exchange -> {
+            rangeHeaders.add(exchange.getRequestHeaders().getFirst("Range"));
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.getResponseHeaders().add("Content-Range", "bytes 0-1023/" + image.length);
+            exchange.sendResponseHeaders(206, 1024);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(image, 0, 1024);
+            }
+        });
+        origin.createContext("/ignores-range.png", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, image.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(image);
+            }
+        });
+        origin.createContext("/missing.png", exchange -> exchange.sendResponseHeaders(404, -1));
+        origin.createContext("/to-internal", exchange -> {
+            exchange.getResponseHeaders().add("Location", "http://10.0.0.1:8080/admin");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        origin.createContext("/rate-limited", exchange -> {
+            rateLimitedRequests.add(System.nanoTime());
+            exchange.sendResponseHeaders(204, -1);
+        });
+        origin.createContext("/slow", exchange -> {
+            try {
+                slowResponse.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        origin.setExecutor(Executors.newCachedThreadPool());
+        origin.start();
+
+        properties = new UrlValidationProperties();
+        properties.setMetadataBytes(DataSize.ofKilobytes(1));
+        properties.setPerHostInterval(Duration.ZERO);
+        OriginProperties originProperties = new OriginProperties();
+        originProperties.setAllowedHosts(List.of("localhost", "127.0.0.1"));
+        originGuard = new OriginGuard(originProperties);
+        worker = new UrlValidationWorker(properties, imageRepository, originGuard);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        slowResponse.countDown();
+        worker.shutdown();
+        origin.stop(0);
+    }
+
+    @Test
+    public void givenImageUrl_whenEnqueue_thenRecordStatusTypeSizeAndDimensions() {
+        // Given
+        worker.start();
+
+        // When
+        worker.enqueue("ABCDEF", url("/image.png"));
+        worker.enqueue("GHIJKL", url("/ignores-range.png"));
+
+        // Then
+        UrlMetadata ranged = recorded("ABCDEF", url("/image.png"));
+        assertThat(ranged.getStatus()).isEqualTo(UrlStatus.REACHABLE);
+        assertThat(ranged.getHttpStatus()).isEqualTo(206);
+        assertThat(ranged.getContentType()).isEqualTo("image/png");
+        assertThat(ranged.getContentLength()).isGreaterThan(1024L);
+        assertThat(ranged.getWidth()).isEqualTo(640);
+        assertThat(ranged.getHeight()).isEqualTo(480);
+        assertThat(ranged.getCheckedAt()).isNotNull();
+        assertThat(rangeHeaders).containsExactly("bytes=0-1023");
+
+        UrlMetadata full = recorded("GHIJKL", url("/ignores-range.png"));
+        assertThat(full.getHttpStatus()).isEqualTo(200);
+        assertThat(full.getContentLength()).isEqualTo(ranged.getContentLength());
+        assertThat(full.getWidth()).isEqualTo(640);
+    }
+
+    @Test
+    public void givenDeadUrls_whenEnqueue_thenRecordBrokenAndUnreachable() throws IOException {
+        // Given
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        worker.start();
+
+        // When
+        worker.enqueue("ABCDEF", url("/missing.png"));
+        worker.enqueue("GHIJKL", "http://localhost:" + closedPort + "/image.png");
+        worker.enqueue("MNOPQR", "ftp://localhost/image.png");
+
+        // Then
+        UrlMetadata missing = recorded("ABCDEF", url("/missing.png"));
+        assertThat(missing.getStatus()).isEqualTo(UrlStatus.BROKEN);
+        assertThat(missing.getHttpStatus()).isEqualTo(404);
+        assertThat(missing.getWidth()).isNull();
+        assertThat(recorded("GHIJKL", "http://localhost:" + closedPort + "/image.png").getStatus())
+                .isEqualTo(UrlStatus.UNREACHABLE);
+        assertThat(recorded("MNOPQR", "ftp://localhost/image.png").getStatus())
+                .isEqualTo(UrlStatus.UNREACHABLE);
+    }
+
+    @Test
+    public void givenInternalTarget_whenEnqueue_thenRecordUnreachableWithoutProbingIt() {
+        // Given
+        worker.start();
+
+        // When
+        worker.enqueue("ABCDEF", "http://169.254.169.254/latest/meta-data/");
+        worker.enqueue("GHIJKL", url("/to-internal"));
+
+        // Then
+        UrlMetadata metadata = recorded("ABCDEF", "http://169.254.169.254/latest/meta-data/");
+        assertThat(metadata.getStatus()).isEqualTo(UrlStatus.UNREACHABLE);
+        assertThat(metadata.getHttpStatus()).isNull();
+        UrlMetadata redirected = recorded("GHIJKL", url("/to-internal"));
+        assertThat(redirected.getStatus()).isEqualTo(UrlStatus.UNREACHABLE);
+        assertThat(redirected.getHttpStatus()).isNull();
+    }
+
+    @Test
+    public void givenPerHostInterval_whenEnqueueSameHost_thenSpaceRequests() {
+        // Given
+        properties.setPerHostInterval(Duration.ofMillis(100));
+        worker.start();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            worker.enqueue("CODE" + i, url("/rate-limited"));
+        }
+
+        // Then
+        verify(imageRepository, timeout(5000).times(3)).recordUrlMetadata(any(), eq(url("/rate-limited")), any());
+        assertThat(rateLimitedRequests).hasSize(3);
+        for (int i = 1; i < rateLimitedRequests.size(); i++) {
+            assertThat(rateLimitedRequests.get(i) - rateLimitedRequests.get(i - 1))
+                    .isGreaterThanOrEqualTo(Duration.ofMillis(50).toNanos());
+        }
+    }
+
+    @Test
+    public void givenBacklogForOneHost_whenEnqueueAnotherHost_thenProbeItWithoutWaiting() {
+        // Given
+        properties.setPerHostInterval(Duration.ofMillis(200));
+        properties.setMaxConcurrency(2);
+        worker.shutdown();
+        worker = new UrlValidationWorker(properties, imageRepository, originGuard);
+        worker.start();
+        for (int i = 0; i < 10; i++) {
+            worker.enqueue("CODE" + i, url("/rate-limited"));
+        }
+
+        // When
+        String otherHost = "http://127.0.0.1:" + origin.getAddress().getPort() + "/rate-limited";
+        worker.enqueue("OTHER", otherHost);
+
+        // Then
+        verify(imageRepository, timeout(1000).times(1)).recordUrlMetadata(eq("OTHER"), eq(otherHost), any());
+        assertThat(rateLimitedRequests.size()).isLessThan(10);
+    }
+
+    @Test
+    public void givenSlowOrigin_whenProbeInFlight_thenHoldPermitUntilResponseCompletes() {
+        // Given
+        properties.setMaxConcurrency(1);
+        worker.shutdown();
+        worker = new UrlValidationWorker(properties, imageRepository, originGuard);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        worker.bindTo(registry);
+        worker.start();
+        worker.enqueue("ABCDEF", url("/slow"));
+
+        // When
+        worker.enqueue("GHIJKL", url("/image.png"));
+
+        // Then
+        verify(imageRepository, after(300).never()).recordUrlMetadata(any(), any(), any());
+        assertThat(registry.get("imagelink.url.validation.in.flight").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("imagelink.url.validation.queued").gauge().value()).isEqualTo(1);
+        assertThat(Thread.getAllStackTraces().keySet())
+                .noneMatch(thread -> thread.getName().startsWith("url-validation-client")
+                        && thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING);
+
+        slowResponse.countDown();
+        assertThat(recorded("ABCDEF", url("/slow")).getHttpStatus()).isEqualTo(204);
+        assertThat(recorded("GHIJKL", url("/image.png")).getStatus()).isEqualTo(UrlStatus.REACHABLE);
+        assertThat(registry.get("imagelink.url.validation.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    public void givenFullQueue_whenEnqueue_thenDropAndCount() {
+        // Given
+        properties.setQueueCapacity(1);
+        worker.shutdown();
+        worker = new UrlValidationWorker(properties, imageRepository, originGuard);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        worker.bindTo(registry);
+
+        // When
+        worker.enqueue("ABCDEF", url("/image.png"));
+        worker.enqueue("GHIJKL", url("/image.png"));
+
+        // Then
+        assertThat(registry.get("imagelink.url.validation.queued").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("imagelink.url.validation.dropped").functionCounter().count()).isEqualTo(1);
+    }
+
+    private UrlMetadata recorded(String code, String originalUrl) {
+        ArgumentCaptor<UrlMetadata> metadata = ArgumentCaptor.forClass(UrlMetadata.class);
+        verify(imageRepository, timeout(5000).times(1)).recordUrlMetadata(eq(code), eq(originalUrl), metadata.capture());
+        return metadata.getValue();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + origin.getAddress().getPort() + path;
+    }
+
+    private static byte[] noise(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}